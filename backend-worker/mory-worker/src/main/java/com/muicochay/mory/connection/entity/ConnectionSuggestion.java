@@ -0,0 +1,39 @@
+package com.muicochay.mory.connection.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Precomputed friend-of-friend suggestion: a user not yet connected to {@code userId}, ranked by the
+ * number of mutual connections. Rows are rewritten per user by {@code ConnectionSuggestionWorker}.
+ */
+@Entity
+@Table(name = "connection_suggestions",
+        indexes = {
+                @Index(name = "idx_connection_suggestions_rank", columnList = "user_id, mutual_count DESC, suggested_user_id DESC")
+        })
+@IdClass(ConnectionSuggestionId.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionSuggestion {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Id
+    @Column(name = "suggested_user_id")
+    private UUID suggestedUserId;
+
+    @Column(name = "mutual_count", nullable = false)
+    private int mutualCount;
+
+    @Column(name = "computed_at", nullable = false)
+    private Instant computedAt;
+}
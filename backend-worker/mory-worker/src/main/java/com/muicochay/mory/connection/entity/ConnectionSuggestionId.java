@@ -0,0 +1,18 @@
+package com.muicochay.mory.connection.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ConnectionSuggestionId implements Serializable {
+    private UUID userId;
+    private UUID suggestedUserId;
+}
@@ -0,0 +1,21 @@
+package com.muicochay.mory.connection.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ConnectionSuggestionBatchRepository {
+
+    /**
+     * Replaces the suggestions of the given users with their current top {@code limit} candidates.
+     *
+     * @return the number of suggestion rows written
+     */
+    int replaceSuggestions(Collection<UUID> userIds, int limit, Instant computedAt);
+
+    /**
+     * Returns the next users having at least one CONNECTED connection, ordered by id after {@code afterId}.
+     */
+    List<UUID> findConnectedUserIdsAfter(UUID afterId, int limit);
+}
@@ -0,0 +1,114 @@
+package com.muicochay.mory.connection.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based recomputation of friend-of-friend suggestions.
+ *
+ * <p>For a batch of users the graph is walked two hops from their own connections only, candidates are
+ * grouped and counted (the count is the number of mutual connections), users already connected
+ * (any status but INACTIVE) or with a pending request either way are dropped, and the top candidates of
+ * each user are kept with {@code ROW_NUMBER()}. Old rows of the batch are deleted first, so callers are
+ * expected to run the replacement in a transaction.</p>
+ */
+@Repository
+public class ConnectionSuggestionBatchRepositoryImpl implements ConnectionSuggestionBatchRepository {
+
+    private static final String REPLACE_SQL = """
+            WITH first_hop AS (
+                SELECT c.user1_id AS user_id, c.user2_id AS peer_id
+                FROM connections c
+                WHERE c.user1_id IN (:userIds) AND c.status = 'CONNECTED'
+                UNION ALL
+                SELECT c.user2_id, c.user1_id
+                FROM connections c
+                WHERE c.user2_id IN (:userIds) AND c.status = 'CONNECTED'
+            ),
+            second_hop AS (
+                SELECT f.user_id, c.user2_id AS candidate_id
+                FROM first_hop f
+                JOIN connections c ON c.user1_id = f.peer_id AND c.status = 'CONNECTED'
+                UNION ALL
+                SELECT f.user_id, c.user1_id
+                FROM first_hop f
+                JOIN connections c ON c.user2_id = f.peer_id AND c.status = 'CONNECTED'
+            ),
+            scored AS (
+                SELECT s.user_id, s.candidate_id, COUNT(*) AS mutual_count
+                FROM second_hop s
+                WHERE s.candidate_id <> s.user_id
+                  AND NOT EXISTS (
+                      SELECT 1 FROM connections c
+                      WHERE ((c.user1_id = s.user_id AND c.user2_id = s.candidate_id)
+                          OR (c.user2_id = s.user_id AND c.user1_id = s.candidate_id))
+                        AND c.status <> 'INACTIVE'
+                  )
+                  AND NOT EXISTS (
+                      SELECT 1 FROM connection_requests cr
+                      WHERE ((cr.requester_id = s.user_id AND cr.recipient_id = s.candidate_id)
+                          OR (cr.recipient_id = s.user_id AND cr.requester_id = s.candidate_id))
+                        AND cr.status = 'PENDING'
+                  )
+                GROUP BY s.user_id, s.candidate_id
+            ),
+            ranked AS (
+                SELECT user_id, candidate_id, mutual_count,
+                       ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY mutual_count DESC, candidate_id DESC) AS rn
+                FROM scored
+            )
+            INSERT INTO connection_suggestions (user_id, suggested_user_id, mutual_count, computed_at)
+            SELECT user_id, candidate_id, mutual_count, :computedAt
+            FROM ranked
+            WHERE rn <= :limit
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM connection_suggestions WHERE user_id IN (:userIds)";
+
+    private static final String CONNECTED_USERS_SQL = """
+            SELECT u.id
+            FROM users u
+            WHERE u.id > :afterId
+              AND EXISTS (
+                  SELECT 1 FROM connections c
+                  WHERE (c.user1_id = u.id OR c.user2_id = u.id) AND c.status = 'CONNECTED'
+              )
+            ORDER BY u.id
+            LIMIT :limit
+            """;
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ConnectionSuggestionBatchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int replaceSuggestions(Collection<UUID> userIds, int limit, Instant computedAt) {
+        if (userIds.isEmpty()) return 0;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("limit", limit)
+                .addValue("computedAt", Timestamp.from(computedAt));
+        jdbcTemplate.update(DELETE_SQL, params);
+        return jdbcTemplate.update(REPLACE_SQL, params);
+    }
+
+    @Override
+    public List<UUID> findConnectedUserIdsAfter(UUID afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId != null ? afterId : MIN_UUID)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(CONNECTED_USERS_SQL, params, UUID.class);
+    }
+}
@@ -0,0 +1,17 @@
+package com.muicochay.mory.connection.repository;
+
+import com.muicochay.mory.connection.entity.ConnectionSuggestion;
+import com.muicochay.mory.connection.entity.ConnectionSuggestionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ConnectionSuggestionRepository extends JpaRepository<ConnectionSuggestion, ConnectionSuggestionId>, ConnectionSuggestionBatchRepository {
+
+    @Modifying
+    @Query("DELETE FROM ConnectionSuggestion s WHERE s.computedAt < :cutoff")
+    int deleteComputedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,97 @@
+package com.muicochay.mory.connection.worker;
+
+import com.muicochay.mory.connection.repository.ConnectionSuggestionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps {@code connection_suggestions} up to date.
+ *
+ * <p>The backend adds the users whose friend-of-friend graph changed (both ends of a connection change and
+ * their connections) to {@link #DIRTY_SET_KEY}; they are popped and recomputed in batches. A nightly pass
+ * walks every connected user by id and drops the rows it did not rewrite, i.e. users left without
+ * connections. The same pass runs once at startup while the table is still empty.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionSuggestionWorker {
+
+    private static final String DIRTY_SET_KEY = "connection::suggestions:dirty";
+
+    private final ConnectionSuggestionRepository connectionSuggestionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${connection.suggestions.limit:50}")
+    private int limit;
+
+    @Value("${connection.suggestions.batch-size:100}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        try {
+            if (connectionSuggestionRepository.count() == 0) {
+                rebuildAll();
+            }
+        } catch (Exception e) {
+            log.error("Initial rebuild of connection suggestions failed, will retry at the nightly rebuild", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${connection.suggestions.refresh-interval-ms:30000}")
+    public void refreshDirtyUsers() {
+        int refreshed = 0;
+        List<String> popped;
+        while (!(popped = redisTemplate.opsForSet().pop(DIRTY_SET_KEY, batchSize)).isEmpty()) {
+            try {
+                replace(popped.stream().map(UUID::fromString).toList(), Instant.now());
+                refreshed += popped.size();
+            } catch (Exception e) {
+                log.error("Failed to refresh suggestions of {} users, will retry in next run", popped.size(), e);
+                redisTemplate.opsForSet().add(DIRTY_SET_KEY, popped.toArray(new String[0]));
+                return;
+            }
+        }
+        if (refreshed > 0) {
+            log.info("Refreshed connection suggestions of {} users", refreshed);
+        }
+    }
+
+    @Scheduled(cron = "${connection.suggestions.rebuild-cron:0 0 3 * * *}")
+    public void rebuildAll() {
+        Instant startedAt = Instant.now();
+        UUID cursor = null;
+        int users = 0;
+        List<UUID> userIds;
+        do {
+            userIds = connectionSuggestionRepository.findConnectedUserIdsAfter(cursor, batchSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            replace(userIds, startedAt);
+            users += userIds.size();
+            cursor = userIds.getLast();
+        } while (userIds.size() == batchSize);
+
+        Integer removed = transactionTemplate.execute(status -> connectionSuggestionRepository.deleteComputedBefore(startedAt));
+        log.info("Rebuilt connection suggestions of {} users, removed {} stale rows", users, removed);
+    }
+
+    private void replace(List<UUID> userIds, Instant computedAt) {
+        transactionTemplate.executeWithoutResult(status ->
+                connectionSuggestionRepository.replaceSuggestions(userIds, limit, computedAt));
+    }
+}
@@ -6,22 +6,68 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Flushes the read state of conversation members buffered in Redis to the database.
+ *
+ * <p>Each chunk is claimed atomically: a Lua script pops it from {@link #PENDING_SET_KEY} into its own
+ * processing set, registered in {@link #PROCESSING_RUNS_KEY}. An update written after the claim re-adds its
+ * member to the pending set and is picked up by the next flush, so nothing written between the read and the
+ * database write is lost. The claimed hashes are read in one pipeline; the processing set is dropped once
+ * the database write succeeds and merged back into the pending set when it fails. Claims left behind by a
+ * crashed run are re-queued after {@code sync.batch.claim-timeout-ms}.</p>
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ConversationMemberSyncConsumer {
 
     private static final String PENDING_SET_KEY = "conversation_member_pending_set";
-
-    private final RedisTemplate<String, String> redisTemplate;
+    private static final String PROCESSING_SET_KEY_PREFIX = "conversation_member_processing_set:";
+    private static final String PROCESSING_RUNS_KEY = "conversation_member_processing_runs";
+
+    // KEYS: pending, processing, runs | ARGV: count, now
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local members = redis.call('SPOP', KEYS[1], ARGV[1])
+            if #members == 0 then
+                return members
+            end
+            for i = 1, #members, 500 do
+                redis.call('SADD', KEYS[2], unpack(members, i, math.min(i + 499, #members)))
+            end
+            redis.call('ZADD', KEYS[3], ARGV[2], KEYS[2])
+            return members
+            """, List.class);
+
+    // KEYS: pending, processing, runs
+    private static final RedisScript<Long> REQUEUE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                redis.call('SUNIONSTORE', KEYS[1], KEYS[1], KEYS[2])
+                redis.call('DEL', KEYS[2])
+            end
+            redis.call('ZREM', KEYS[3], KEYS[2])
+            return 1
+            """, Long.class);
+
+    // KEYS: processing, runs
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('ZREM', KEYS[2], KEYS[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
     private final ConversationMemberRepository conversationMemberRepository;
 
     @Value("${sync.batch.flush.interval.ms}")
@@ -30,71 +76,119 @@ public class ConversationMemberSyncConsumer {
     @Value("${sync.batch.chunk.size}")
     private int chunkSize;
 
+    @Value("${sync.batch.claim-timeout-ms:600000}")
+    private long claimTimeoutMs;
+
     @Scheduled(fixedDelayString = "${sync.batch.flush.interval.ms:5000}")
     public void flushBufferToDb() {
         log.info("Starting flushBufferToDb()");
-        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(PENDING_SET_KEY, ScanOptions.NONE)) {
-
-            List<String> chunk = new ArrayList<>(chunkSize);
-
-            while (cursor.hasNext()) {
-                String compositeKey = cursor.next();
-                chunk.add(compositeKey);
-
-                if (chunk.size() >= chunkSize) {
-                    log.info("Processing chunk of size {}", chunk.size());
-                    processChunk(chunk);
-                    chunk.clear();
+        try {
+            requeueStaleClaims();
+
+            // Chỉ xử lý số key có sẵn lúc bắt đầu, key được thêm lại trong lúc flush để lần sau
+            Long pending = redisTemplate.opsForSet().size(PENDING_SET_KEY);
+            long remaining = pending != null ? pending : 0;
+            while (remaining > 0) {
+                String processingKey = PROCESSING_SET_KEY_PREFIX + UUID.randomUUID();
+                List<String> chunk = claim(processingKey);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                remaining -= chunk.size();
+                log.info("Processing chunk of size {}", chunk.size());
+                if (!processChunk(processingKey, chunk)) {
+                    break;
                 }
-            }
-
-            if (!chunk.isEmpty()) {
-                log.info("Processing final chunk of size {}", chunk.size());
-                processChunk(chunk);
             }
             log.info("flushBufferToDb() finished");
 
         } catch (Exception e) {
-            log.error("Error scanning Redis set", e);
+            log.error("Error flushing Redis pending set", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> claim(String processingKey) {
+        List<String> members = redisTemplate.execute(CLAIM_SCRIPT,
+                List.of(PENDING_SET_KEY, processingKey, PROCESSING_RUNS_KEY),
+                String.valueOf(chunkSize),
+                String.valueOf(System.currentTimeMillis()));
+        return members != null ? members : List.of();
+    }
+
+    private void requeueStaleClaims() {
+        Set<String> stale = redisTemplate.opsForZSet().rangeByScore(
+                PROCESSING_RUNS_KEY, 0, System.currentTimeMillis() - claimTimeoutMs);
+        if (stale == null || stale.isEmpty()) {
+            return;
         }
+        stale.forEach(this::requeue);
+        log.warn("Re-queued {} stale claims of pending member updates", stale.size());
+    }
+
+    private void requeue(String processingKey) {
+        redisTemplate.execute(REQUEUE_SCRIPT, List.of(PENDING_SET_KEY, processingKey, PROCESSING_RUNS_KEY));
     }
 
-    private void processChunk(List<String> chunk) {
-        List<ConversationMemberUpdate> updates = chunk.stream()
-                .map(compositeKey -> {
-                    String[] parts = compositeKey.split(":");
-                    if (parts.length != 2) return null;
-                    UUID conversationId = UUID.fromString(parts[0]);
-                    UUID userId = UUID.fromString(parts[1]);
-                    String redisKey = buildRedisKey(conversationId, userId);
-
-                    Map<Object, Object> rawMap = redisTemplate.opsForHash().entries(redisKey);
-                    Map<String, String> map = rawMap.entrySet().stream()
-                            .filter(e -> e.getKey() != null && e.getValue() != null)
-                            .collect(Collectors.toMap(
-                                    e -> e.getKey().toString(),
-                                    e -> e.getValue().toString()
-                            ));
-
-                    return toUpdate(conversationId, userId, compositeKey, map);
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    /**
+     * Writes one claimed chunk to the database.
+     *
+     * @return {@code false} if the write failed and the chunk was re-queued
+     */
+    private boolean processChunk(String processingKey, List<String> chunk) {
+        List<String> compositeKeys = new ArrayList<>(chunk.size());
+        List<UUID[]> ids = new ArrayList<>(chunk.size());
+        for (String compositeKey : chunk) {
+            String[] parts = compositeKey.split(":");
+            if (parts.length != 2) continue;
+            try {
+                ids.add(new UUID[]{UUID.fromString(parts[0]), UUID.fromString(parts[1])});
+                compositeKeys.add(compositeKey);
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid compositeKey in pending Redis Set: {}", compositeKey);
+            }
+        }
+
+        List<Object> hashes = compositeKeys.isEmpty() ? List.of() : redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            ids.forEach(id -> conn.hGetAll(buildRedisKey(id[0], id[1])));
+            return null;
+        });
+
+        List<ConversationMemberUpdate> updates = new ArrayList<>(compositeKeys.size());
+        for (int i = 0; i < compositeKeys.size(); i++) {
+            Map<String, String> map = new HashMap<>();
+            if (hashes.get(i) instanceof Map<?, ?> rawMap) {
+                rawMap.forEach((k, v) -> {
+                    if (k != null && v != null) {
+                        map.put(k.toString(), v.toString());
+                    }
+                });
+            }
+            ConversationMemberUpdate update = toUpdate(ids.get(i)[0], ids.get(i)[1], compositeKeys.get(i), map);
+            if (update != null) {
+                updates.add(update);
+            }
+        }
 
         if (updates.isEmpty()) {
             log.debug("No valid updates in chunk, skipping DB write");
-            return;
+            redisTemplate.execute(COMPLETE_SCRIPT, List.of(processingKey, PROCESSING_RUNS_KEY));
+            return true;
         }
 
         try {
             applyBatchUpdates(updates);
             log.info("Successfully updated {} records in DB", updates.size());
-
-            redisTemplate.opsForSet().remove(PENDING_SET_KEY, (Object[]) chunk.toArray(new String[0]));
-            log.debug("Removed {} compositeKeys from pending Redis Set", chunk.size());
         } catch (Exception ex) {
             log.error("DB batch write failed — will retry in next flush", ex);
+            requeue(processingKey);
+            return false;
         }
+
+        redisTemplate.execute(COMPLETE_SCRIPT, List.of(processingKey, PROCESSING_RUNS_KEY));
+        log.debug("Completed claim of {} compositeKeys", chunk.size());
+        return true;
     }
 
     private ConversationMemberUpdate toUpdate(UUID conversationId, UUID userId, String compositeKey, Map<String, String> map) {
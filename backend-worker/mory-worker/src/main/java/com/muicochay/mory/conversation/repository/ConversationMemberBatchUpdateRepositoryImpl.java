@@ -2,15 +2,33 @@ package com.muicochay.mory.conversation.repository;
 
 import com.muicochay.mory.conversation.dto.ConversationMemberUpdate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.sql.Connection;
 import java.util.List;
-
+import java.util.UUID;
+
+/**
+ * Set-based update of the read state of conversation members.
+ *
+ * <p>The chunk is bound as one array per column and joined with {@code unnest}, so the statement text and
+ * its five parameters are the same for any chunk size and Postgres can reuse the plan. A {@code null}
+ * last read message or time keeps the stored value.</p>
+ */
 @Repository
 public class ConversationMemberBatchUpdateRepositoryImpl implements ConversationMemberBatchUpdateRepository {
 
+    private static final String UPDATE_SQL = """
+            UPDATE conversation_members m
+            SET last_read_message_id = COALESCE(u.last_read_message_id, m.last_read_message_id),
+                last_read_at = COALESCE(u.last_read_at, m.last_read_at),
+                unread_count = u.unread_count
+            FROM unnest(?, ?, ?, CAST(? AS timestamptz[]), ?)
+                AS u(conversation_id, user_id, last_read_message_id, last_read_at, unread_count)
+            WHERE m.conversation_id = u.conversation_id
+              AND m.user_id = u.user_id
+            """;
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
     public ConversationMemberBatchUpdateRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
@@ -21,60 +39,29 @@ public class ConversationMemberBatchUpdateRepositoryImpl implements Conversation
     public void batchUpdate(List<ConversationMemberUpdate> updates) {
         if (updates.isEmpty()) return;
 
-        StringBuilder lastReadMessageIdCase = new StringBuilder();
-        StringBuilder lastReadAtCase = new StringBuilder();
-        StringBuilder unreadCountCase = new StringBuilder();
-
-        List<String> whereClauses = new ArrayList<>();
-        MapSqlParameterSource params = new MapSqlParameterSource();
-
-        int index = 0;
-        for (ConversationMemberUpdate u : updates) {
-            String convParam = "convId" + index;
-            String userParam = "userId" + index;
-
-            whereClauses.add("(conversation_id = :" + convParam + " AND user_id = :" + userParam + ")");
-            params.addValue(convParam, u.conversationId());
-            params.addValue(userParam, u.userId());
-
-            // last_read_message_id CASE
-            lastReadMessageIdCase.append("WHEN (conversation_id = :").append(convParam)
-                    .append(" AND user_id = :").append(userParam).append(") THEN ");
-            if (u.lastReadMessageId() != null) {
-                String paramName = "lastReadMessageId" + index;
-                lastReadMessageIdCase.append(":").append(paramName).append(" ");
-                params.addValue(paramName, u.lastReadMessageId().toHexString());
-            } else {
-                lastReadMessageIdCase.append("last_read_message_id ");
-            }
-
-            // last_read_at CASE
-            lastReadAtCase.append("WHEN (conversation_id = :").append(convParam)
-                    .append(" AND user_id = :").append(userParam).append(") THEN ");
-            if (u.lastReadAt() != null) {
-                String paramName = "lastReadAt" + index;
-                lastReadAtCase.append(":").append(paramName).append(" ");
-                params.addValue(paramName, u.lastReadAt());
-            } else {
-                lastReadAtCase.append("last_read_at ");
-            }
-
-            // unread_count CASE
-            unreadCountCase.append("WHEN (conversation_id = :").append(convParam)
-                    .append(" AND user_id = :").append(userParam).append(") THEN :unreadCount")
-                    .append(index).append(" ");
-
-            params.addValue("unreadCount" + index, u.unreadCount());
-
-            index++;
+        int size = updates.size();
+        UUID[] conversationIds = new UUID[size];
+        UUID[] userIds = new UUID[size];
+        String[] lastReadMessageIds = new String[size];
+        String[] lastReadAts = new String[size];
+        Integer[] unreadCounts = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            ConversationMemberUpdate u = updates.get(i);
+            conversationIds[i] = u.conversationId();
+            userIds[i] = u.userId();
+            lastReadMessageIds[i] = u.lastReadMessageId() != null ? u.lastReadMessageId().toHexString() : null;
+            lastReadAts[i] = u.lastReadAt() != null ? u.lastReadAt().toString() : null;
+            unreadCounts[i] = u.unreadCount();
         }
 
-        String sql = "UPDATE conversation_members SET " +
-                "last_read_message_id = CASE " + lastReadMessageIdCase + "ELSE last_read_message_id END, " +
-                "last_read_at = CASE " + lastReadAtCase + "ELSE last_read_at END, " +
-                "unread_count = CASE " + unreadCountCase + "ELSE unread_count END " +
-                "WHERE " + String.join(" OR ", whereClauses);
-
-        jdbcTemplate.update(sql, params);
+        jdbcTemplate.getJdbcTemplate().update(UPDATE_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("uuid", conversationIds));
+            ps.setArray(2, connection.createArrayOf("uuid", userIds));
+            ps.setArray(3, connection.createArrayOf("varchar", lastReadMessageIds));
+            ps.setArray(4, connection.createArrayOf("text", lastReadAts));
+            ps.setArray(5, connection.createArrayOf("int4", unreadCounts));
+        });
     }
 }
@@ -0,0 +1,170 @@
+package com.muicochay.mory.conversation.consumer;
+
+import com.muicochay.mory.conversation.dto.ConversationMemberUpdate;
+import com.muicochay.mory.conversation.repository.ConversationMemberRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the claim / complete / re-queue flow of {@link ConversationMemberSyncConsumer} against a real Redis,
+ * with the database write replaced by a mock.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ConversationMemberSyncConsumerTest {
+
+    private static final String PENDING_SET_KEY = "conversation_member_pending_set";
+    private static final String PROCESSING_SET_KEY_PREFIX = "conversation_member_processing_set:";
+    private static final String PROCESSING_RUNS_KEY = "conversation_member_processing_runs";
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private ConversationMemberRepository conversationMemberRepository;
+    private ConversationMemberSyncConsumer consumer;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        }, true);
+        conversationMemberRepository = mock(ConversationMemberRepository.class);
+        consumer = new ConversationMemberSyncConsumer(redisTemplate, conversationMemberRepository);
+        ReflectionTestUtils.setField(consumer, "chunkSize", 100);
+        ReflectionTestUtils.setField(consumer, "claimTimeoutMs", 600_000L);
+    }
+
+    @Test
+    void updateWrittenAfterClaimIsFlushedOnNextRun() {
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        writeUpdate(conversationId, userId, 1);
+
+        // Một lần đọc mới ghi vào Redis trong lúc chunk đang được ghi xuống DB
+        doAnswer(invocation -> {
+            writeUpdate(conversationId, userId, 5);
+            return null;
+        }).doNothing().when(conversationMemberRepository).batchUpdate(anyList());
+
+        consumer.flushBufferToDb();
+
+        assertEquals(Set.of(compositeKey(conversationId, userId)), redisTemplate.opsForSet().members(PENDING_SET_KEY));
+        assertNoClaimsLeft();
+
+        consumer.flushBufferToDb();
+
+        List<List<ConversationMemberUpdate>> written = captureWrites(2);
+        assertEquals(1, written.get(0).get(0).unreadCount());
+        assertEquals(5, written.get(1).get(0).unreadCount());
+        assertEquals(0L, redisTemplate.opsForSet().size(PENDING_SET_KEY));
+        assertNoClaimsLeft();
+    }
+
+    @Test
+    void failedDatabaseWriteRequeuesChunk() {
+        UUID conversationId = UUID.randomUUID();
+        UUID firstUserId = UUID.randomUUID();
+        UUID secondUserId = UUID.randomUUID();
+        writeUpdate(conversationId, firstUserId, 2);
+        writeUpdate(conversationId, secondUserId, 3);
+
+        doThrow(new DataAccessResourceFailureException("database unavailable"))
+                .doNothing()
+                .when(conversationMemberRepository).batchUpdate(anyList());
+
+        consumer.flushBufferToDb();
+
+        assertEquals(Set.of(compositeKey(conversationId, firstUserId), compositeKey(conversationId, secondUserId)),
+                redisTemplate.opsForSet().members(PENDING_SET_KEY));
+        assertNoClaimsLeft();
+
+        consumer.flushBufferToDb();
+
+        List<List<ConversationMemberUpdate>> written = captureWrites(2);
+        assertEquals(2, written.get(1).size());
+        assertEquals(0L, redisTemplate.opsForSet().size(PENDING_SET_KEY));
+        assertNoClaimsLeft();
+    }
+
+    @Test
+    void staleClaimIsRequeuedAndFlushed() {
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        String compositeKey = compositeKey(conversationId, userId);
+        redisTemplate.opsForHash().putAll(redisKey(conversationId, userId), Map.of("unreadCount", "4"));
+
+        // Claim của một lần chạy đã crash, quá claim timeout
+        String processingKey = PROCESSING_SET_KEY_PREFIX + UUID.randomUUID();
+        redisTemplate.opsForSet().add(processingKey, compositeKey);
+        redisTemplate.opsForZSet().add(PROCESSING_RUNS_KEY, processingKey, System.currentTimeMillis() - 3_600_000L);
+
+        consumer.flushBufferToDb();
+
+        List<List<ConversationMemberUpdate>> written = captureWrites(1);
+        assertEquals(4, written.get(0).get(0).unreadCount());
+        assertFalse(redisTemplate.hasKey(processingKey));
+        assertNoClaimsLeft();
+    }
+
+    private void writeUpdate(UUID conversationId, UUID userId, int unreadCount) {
+        redisTemplate.opsForHash().put(redisKey(conversationId, userId), "unreadCount", String.valueOf(unreadCount));
+        redisTemplate.opsForSet().add(PENDING_SET_KEY, compositeKey(conversationId, userId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<ConversationMemberUpdate>> captureWrites(int times) {
+        ArgumentCaptor<List<ConversationMemberUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(conversationMemberRepository, times(times)).batchUpdate(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private void assertNoClaimsLeft() {
+        assertEquals(0L, redisTemplate.opsForZSet().zCard(PROCESSING_RUNS_KEY));
+        assertEquals(Set.of(), redisTemplate.keys(PROCESSING_SET_KEY_PREFIX + "*"));
+    }
+
+    private static String compositeKey(UUID conversationId, UUID userId) {
+        return conversationId + ":" + userId;
+    }
+
+    private static String redisKey(UUID conversationId, UUID userId) {
+        return "conversation:" + conversationId + ":member:" + userId;
+    }
+}
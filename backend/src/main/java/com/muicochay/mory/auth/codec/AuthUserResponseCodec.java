@@ -0,0 +1,75 @@
+package com.muicochay.mory.auth.codec;
+
+import com.muicochay.mory.auth.dto.AuthUserResponse;
+import com.muicochay.mory.shared.redis.RedisValueCodec;
+import com.muicochay.mory.user.dto.UserProfileDto;
+import com.muicochay.mory.user.enums.RoleCode;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.muicochay.mory.shared.redis.RedisValueCodec.*;
+
+/**
+ * Binary layout of a cached {@link AuthUserResponse}: id, email, isVerified, roleCode, then the profile
+ * (presence flag, displayName, avatarUrl, onboarded).
+ */
+@Component
+public class AuthUserResponseCodec implements RedisValueCodec<AuthUserResponse> {
+
+    @Override
+    public int id() {
+        return 2;
+    }
+
+    @Override
+    public String name() {
+        return "auth-user";
+    }
+
+    @Override
+    public Class<AuthUserResponse> type() {
+        return AuthUserResponse.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(AuthUserResponse value, DataOutput out) throws IOException {
+        writeUuid(out, value.getId());
+        writeString(out, value.getEmail());
+        out.writeBoolean(value.isVerified());
+        writeEnum(out, value.getRoleCode());
+
+        UserProfileDto profile = value.getProfile();
+        out.writeBoolean(profile != null);
+        if (profile != null) {
+            writeString(out, profile.getDisplayName());
+            writeString(out, profile.getAvatarUrl());
+            out.writeBoolean(profile.isOnboarded());
+        }
+    }
+
+    @Override
+    public AuthUserResponse read(DataInput in, int version) throws IOException {
+        AuthUserResponse response = AuthUserResponse.builder()
+                .id(readUuid(in))
+                .email(readString(in))
+                .isVerified(in.readBoolean())
+                .roleCode(readEnum(in, RoleCode.class))
+                .build();
+        if (in.readBoolean()) {
+            response.setProfile(UserProfileDto.builder()
+                    .displayName(readString(in))
+                    .avatarUrl(readString(in))
+                    .onboarded(in.readBoolean())
+                    .build());
+        }
+        return response;
+    }
+}
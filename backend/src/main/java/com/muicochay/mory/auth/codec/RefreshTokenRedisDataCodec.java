@@ -0,0 +1,64 @@
+package com.muicochay.mory.auth.codec;
+
+import com.muicochay.mory.auth.dto.refreshtoken.RefreshTokenRedisData;
+import com.muicochay.mory.shared.redis.RedisValueCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.muicochay.mory.shared.redis.RedisValueCodec.*;
+
+/**
+ * Binary layout of a refresh token session: userId, createAt, ip, userAgent, revoked.
+ *
+ * <p>Sessions are now Redis hashes; this codec only decodes the sessions written before, which
+ * {@code RefreshTokenRedisService} still accepts until they expire.</p>
+ */
+@Component
+public class RefreshTokenRedisDataCodec implements RedisValueCodec<RefreshTokenRedisData> {
+
+    @Override
+    public int id() {
+        return 1;
+    }
+
+    @Override
+    public String name() {
+        return "refresh-token";
+    }
+
+    @Override
+    public Class<RefreshTokenRedisData> type() {
+        return RefreshTokenRedisData.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(RefreshTokenRedisData value, DataOutput out) throws IOException {
+        writeUuid(out, value.getUserId());
+        out.writeBoolean(value.getCreateAt() != null);
+        if (value.getCreateAt() != null) {
+            out.writeLong(value.getCreateAt());
+        }
+        writeString(out, value.getIp());
+        writeString(out, value.getUserAgent());
+        out.writeBoolean(value.isRevoked());
+    }
+
+    @Override
+    public RefreshTokenRedisData read(DataInput in, int version) throws IOException {
+        return RefreshTokenRedisData.builder()
+                .userId(readUuid(in))
+                .createAt(in.readBoolean() ? in.readLong() : null)
+                .ip(readString(in))
+                .userAgent(readString(in))
+                .revoked(in.readBoolean())
+                .build();
+    }
+}
@@ -1,7 +1,7 @@
 package com.muicochay.mory.auth.config;
 
-import com.muicochay.mory.auth.enums.AuthProvider;
 import com.muicochay.mory.auth.model.AuthUserPrincipal;
+import com.muicochay.mory.auth.model.JwtClaims;
 import com.muicochay.mory.auth.enums.TokenType;
 import com.muicochay.mory.auth.helper.AuthHelper;
 import jakarta.annotation.Nullable;
@@ -20,7 +20,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -54,19 +53,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
             String authToken = jwtTokenHelper.getToken(request);
             if (authToken != null) {
-                UUID userId = jwtTokenHelper.getUserIdFromToken(authToken);
-                Boolean isVerified = jwtTokenHelper.getIsVerifiedFromToken(authToken);
-                String roleCode = jwtTokenHelper.getRoleCodeFromToken(authToken);
-                AuthProvider currentProvider = jwtTokenHelper.getProviderFromToken(authToken);
+                JwtClaims claims = jwtTokenHelper.verify(authToken);
 
-                if (userId != null && currentProvider != null
-                        && isVerified != null && roleCode != null) {
-                    if (jwtTokenHelper.validateToken(authToken, TokenType.ACCESS)) {
+                if (claims != null) {
+                    if (claims.tokenType() == TokenType.ACCESS) {
                         UserDetails userDetails = AuthUserPrincipal.builder()
-                                .id(userId)
-                                .verified(isVerified)
-                                .authorities(AuthHelper.getAuthorities(roleCode))
-                                .currentProvider(currentProvider)
+                                .id(claims.userId())
+                                .verified(claims.verified())
+                                .authorities(AuthHelper.getAuthorities(claims.roleCode()))
+                                .currentProvider(claims.provider())
                                 .build();
                         if (userDetails != null) {
                             UsernamePasswordAuthenticationToken authenticationToken
@@ -81,7 +76,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         }
                     }
                 } else {
-                    log.info("Token's info is missing");
+                    log.info("Token is invalid or its info is missing");
                 }
             } else {
                 log.info("Token is missing");
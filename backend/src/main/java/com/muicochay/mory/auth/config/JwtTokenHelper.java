@@ -3,21 +3,37 @@ package com.muicochay.mory.auth.config;
 import com.muicochay.mory.auth.dto.TokenPair;
 import com.muicochay.mory.auth.enums.AuthProvider;
 import com.muicochay.mory.auth.enums.TokenType;
+import com.muicochay.mory.auth.model.JwtClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 
 @Component
+@RequiredArgsConstructor
 public class JwtTokenHelper {
 
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
+
     @Value("${jwt.auth.app}")
     private String appName;
 
@@ -30,6 +46,24 @@ public class JwtTokenHelper {
     @Value("${jwt.auth.refresh_expires_in}")
     private int refreshExpiresIn;
 
+    private final MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, JwtClaims> verifiedAccessTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedAccessTokens = Caffeine.newBuilder()
+                .maximumSize(VERIFIED_CACHE_SIZE)
+                .expireAfterWrite(Duration.ofSeconds(accessExpiresIn))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedAccessTokens, "verifiedAccessTokens");
+    }
+
     public TokenPair generateTokenPair(
             UUID userId,
             boolean isVerified,
@@ -85,62 +119,71 @@ public class JwtTokenHelper {
                 .claims(claims)
                 .issuedAt(new Date())
                 .expiration(expiration)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public TokenType getTokenTypeFromToken(String token) {
-        try {
-            boolean isRefreshToken = getTokenIdFromToken(token) != null;
-            if (isRefreshToken) {
-                return TokenType.REFRESH;
+    /**
+     * Verifies the signature and expiry of a token and returns its claims in one parse, or {@code null} if the
+     * token is invalid, expired or lacks a required claim.
+     *
+     * <p>Access tokens are remembered by SHA-256 digest until they expire, so a token presented again by the
+     * same client skips signature verification.</p>
+     */
+    public JwtClaims verify(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String digest = digest(token);
+        JwtClaims cached = verifiedAccessTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return cached;
             }
-            return TokenType.ACCESS;
-        } catch (Exception e) {
+            verifiedAccessTokens.invalidate(digest);
             return null;
         }
+
+        JwtClaims claims = parse(token);
+        if (claims != null && claims.tokenType() == TokenType.ACCESS) {
+            verifiedAccessTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    public TokenType getTokenTypeFromToken(String token) {
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.tokenType() : null;
     }
 
     public Boolean getIsVerifiedFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("verified", Boolean.class);
-        } catch (Exception e) {
-            return null;
-        }
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.verified() : null;
     }
 
     public String getRoleCodeFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("roleCode", String.class);
-        } catch (Exception e) {
-            return null;
-        }
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.roleCode() : null;
     }
 
     public AuthProvider getProviderFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            String providerStr = claims.get("provider", String.class);
-            return AuthProvider.valueOf(providerStr);
-        } catch (Exception e) {
-            return null;
-        }
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.provider() : null;
     }
 
     public String getTokenIdFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("refresh_token_id", String.class);
-        } catch (Exception e) {
-            return null;
-        }
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.refreshTokenId() : null;
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public UUID getUserIdFromToken(String token) {
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.userId() : null;
+    }
+
+    public boolean validateToken(String token, TokenType expectedType) {
+        JwtClaims claims = verify(token);
+        return claims != null && claims.tokenType() == expectedType;
     }
 
     private Date getAccessExpirationDate() {
@@ -151,36 +194,6 @@ public class JwtTokenHelper {
         return new Date(new Date().getTime() + refreshExpiresIn * 1000L);
     }
 
-    public boolean validateToken(String token, TokenType expectedType) {
-        if (isTokenExpired(token)) {
-            return false;
-        }
-        TokenType tokenType = getTokenTypeFromToken(token);
-        return expectedType == tokenType;
-    }
-
-    private boolean isTokenExpired(String token) {
-        Date expireDate = getExpireDate(token);
-        if (expireDate == null) {
-            return false;
-        }
-        return expireDate.before(new Date());
-    }
-
-    private Date getExpireDate(String token) {
-        Date expireDate;
-        try {
-            final Claims claims = this.getAllClaimsFromToken(token);
-            if (claims == null) {
-                return null;
-            }
-            expireDate = claims.getExpiration();
-        } catch (Exception e) {
-            expireDate = null;
-        }
-        return expireDate;
-    }
-
     public String getToken(HttpServletRequest request) {
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
@@ -202,31 +215,37 @@ public class JwtTokenHelper {
         return request.getHeader("Authorization");
     }
 
-    public UUID getUserIdFromToken(String authToken) {
-        UUID userId;
+    private JwtClaims parse(String token) {
         try {
-            final Claims claims = this.getAllClaimsFromToken(authToken);
-            if (claims == null) {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String refreshTokenId = claims.get("refresh_token_id", String.class);
+            Boolean verified = claims.get("verified", Boolean.class);
+            String roleCode = claims.get("roleCode", String.class);
+            String provider = claims.get("provider", String.class);
+            if (claims.getSubject() == null || claims.getExpiration() == null
+                    || verified == null || roleCode == null || provider == null) {
                 return null;
             }
-            userId = UUID.fromString(claims.getSubject());
+            return new JwtClaims(
+                    UUID.fromString(claims.getSubject()),
+                    refreshTokenId != null ? TokenType.REFRESH : TokenType.ACCESS,
+                    verified,
+                    roleCode,
+                    AuthProvider.valueOf(provider),
+                    refreshTokenId,
+                    claims.getExpiration().toInstant()
+            );
         } catch (Exception e) {
-            userId = null;
+            return null;
         }
-        return userId;
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        Claims claims;
+    private String digest(String token) {
         try {
-            claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (Exception e) {
-            claims = null;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
-        return claims;
     }
 }
@@ -0,0 +1,38 @@
+package com.muicochay.mory.auth.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the settings of the password hashing pool.
+ *
+ * <pre>{@code
+ * password-hashing:
+ *   bcrypt-strength: 12
+ *   pool-size: 4
+ *   queue-capacity: 64
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+    /**
+     * BCrypt work factor of new hashes; weaker stored hashes are re-hashed on the next successful sign-in.
+     */
+    private int bcryptStrength = 12;
+
+    /**
+     * Number of threads hashing passwords, defaults to the number of CPUs.
+     */
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of hashing tasks waiting for a thread before new ones are rejected.
+     */
+    private int queueCapacity = 64;
+}
@@ -6,6 +6,7 @@ import com.muicochay.mory.user.enums.RoleCode;
 import com.muicochay.mory.shared.config.AppProperties;
 import com.muicochay.mory.shared.dto.ApiResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -18,7 +19,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
@@ -28,6 +30,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Configuration
@@ -41,6 +44,10 @@ public class WebSecurityConfig {
     private final CustomOAuth2SuccessHandler customOAuth2SuccessHandler;
 
     private final AppProperties appProperties;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final MeterRegistry meterRegistry;
+
+    private static final String BCRYPT_ID = "bcrypt";
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -71,6 +78,7 @@ public class WebSecurityConfig {
                                 "/api/auth/onboarding/complete"
                         ).authenticated()
                         .requestMatchers("/oauth2/success").permitAll()
+                        .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/api/admin/**").hasAuthority(String.valueOf(RoleCode.ADMIN))
                         .anyRequest().access(emailVerifiedAuthorizationManager)
                 )
@@ -108,9 +116,16 @@ public class WebSecurityConfig {
         return builder.build();
     }
 
+    /**
+     * BCrypt at the configured work factor, hashed on a bounded pool off the request threads.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                BCRYPT_ID,
+                Map.of(BCRYPT_ID, new BCryptPasswordEncoder(passwordHashingProperties.getBcryptStrength()))
+        );
+        return new BoundedPasswordEncoder(delegating, passwordHashingProperties, meterRegistry);
     }
 
     @Bean
@@ -0,0 +1,27 @@
+package com.muicochay.mory.auth.model;
+
+import com.muicochay.mory.auth.enums.AuthProvider;
+import com.muicochay.mory.auth.enums.TokenType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims of a token whose signature and expiry have been verified.
+ *
+ * @param refreshTokenId only set on refresh tokens
+ */
+public record JwtClaims(
+        UUID userId,
+        TokenType tokenType,
+        boolean verified,
+        String roleCode,
+        AuthProvider provider,
+        String refreshTokenId,
+        Instant expiresAt
+) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
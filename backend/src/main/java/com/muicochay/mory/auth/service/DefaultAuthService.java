@@ -18,6 +18,7 @@ import com.muicochay.mory.auth.dto.signin.BlockedAuthProviderResponse;
 import com.muicochay.mory.auth.enums.AuthProvider;
 import com.muicochay.mory.auth.enums.TokenType;
 import com.muicochay.mory.auth.helper.AuthHelper;
+import com.muicochay.mory.auth.model.JwtClaims;
 import com.muicochay.mory.auth.repository.AuthUserRepository;
 import com.muicochay.mory.cache.constants.CacheNames;
 import com.muicochay.mory.otp.dto.EmailJob;
@@ -62,39 +63,28 @@ public class DefaultAuthService {
     }
 
     public TokenPair validateRefreshTokenAndGenerateTokenPair(String refreshToken, String ip, String userAgent) {
-        UUID userId = jwtTokenHelper.getUserIdFromToken(refreshToken);
-        Boolean isVerified = jwtTokenHelper.getIsVerifiedFromToken(refreshToken);
-        String roleCode = jwtTokenHelper.getRoleCodeFromToken(refreshToken);
-        String refreshTokenId = jwtTokenHelper.getTokenIdFromToken(refreshToken);
-        AuthProvider currentProvider = jwtTokenHelper.getProviderFromToken(refreshToken);
-        if (userId == null) {
-            throw new InvalidTokenEx("Can not get username from Token");
-        }
-        if (currentProvider == null) {
-            throw new InvalidTokenEx("Can not get provider from Token");
-        }
-        if (refreshTokenId == null) {
-            throw new InvalidTokenEx("Can not get tokenId from Token");
-        }
-        if (!jwtTokenHelper.validateToken(refreshToken, TokenType.REFRESH)) {
+        JwtClaims claims = jwtTokenHelper.verify(refreshToken);
+        if (claims == null || claims.tokenType() != TokenType.REFRESH) {
             throw new InvalidTokenEx("Failed to validate Token");
         }
-        if (!refreshTokenRedisService.validateRefreshToken(userId, refreshTokenId)) {
-            throw new InvalidTokenEx("Failed to validate Token");
-        }
-        refreshTokenRedisService.revokeToken(userId, refreshTokenId);
+        UUID userId = claims.userId();
+        String refreshTokenId = claims.refreshTokenId();
         TokenPair newTokenPair = jwtTokenHelper.generateTokenPair(
                 userId,
-                isVerified,
-                roleCode,
-                currentProvider
+                claims.verified(),
+                claims.roleCode(),
+                claims.provider()
         );
-        refreshTokenRedisService.saveSession(
+        RefreshTokenRedisService.RotateResult result = refreshTokenRedisService.rotateSession(
                 userId,
+                refreshTokenId,
                 newTokenPair.getRefreshTokenId(),
                 ip,
                 userAgent
         );
+        if (result != RefreshTokenRedisService.RotateResult.ROTATED) {
+            throw new InvalidTokenEx("Failed to validate Token");
+        }
         return newTokenPair;
     }
 
@@ -164,6 +154,7 @@ public class DefaultAuthService {
         }
         resetPasswordRedisService.deleteToken(token);
         authUserRepository.save(user);
+        refreshTokenRedisService.revokeAllSessions(user.getId());
     }
 
     public boolean checkEmail(String email) {
@@ -6,6 +6,7 @@ import com.muicochay.mory.shared.exception.global.ResourcesNotFoundEx;
 import com.muicochay.mory.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
@@ -18,10 +19,14 @@ import org.springframework.stereotype.Service;
  * {@link AuthUserRepository} using the provided email, and wraps it in a
  * {@link EmailPasswordUserDetails} for use by Spring Security.
  * </p>
+ * <p>
+ * As a {@link UserDetailsPasswordService}, it also stores the re-hashed password
+ * when a successful sign-in finds the stored hash below the configured work factor.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
-public class EmailPasswordUserDetailsService implements UserDetailsService {
+public class EmailPasswordUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final AuthUserRepository authUserRepository;
 
@@ -40,4 +45,20 @@ public class EmailPasswordUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new ResourcesNotFoundEx("User not found with email: " + username));
         return new EmailPasswordUserDetails(user);
     }
+
+    /**
+     * Replaces the stored password hash of the user with an upgraded one.
+     *
+     * @param userDetails the authenticated user
+     * @param newPassword the new password hash
+     * @return the user details holding the new hash
+     * @throws ResourcesNotFoundEx if the user no longer exists
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = authUserRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new ResourcesNotFoundEx("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return new EmailPasswordUserDetails(authUserRepository.save(user));
+    }
 }
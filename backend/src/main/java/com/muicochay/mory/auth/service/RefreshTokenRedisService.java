@@ -5,11 +5,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.*;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * <h4>Service responsible for managing Refresh Tokens in Redis.</h4>
@@ -23,60 +28,131 @@ import java.util.*;
  * <li>Detecting reuse of revoked tokens (token theft/replay protection)</li>
  * </ul>
  *
+ * <p>
+ * A session is a hash ({@code userId}, {@code createAt}, {@code ip}, {@code userAgent}, {@code revoked}) and a
+ * user's active sessions are a sorted set of token ids by creation time. Every operation is a single Lua
+ * script, so it is atomic and costs one round trip; concurrent logins of the same user need no lock. The
+ * scripts touch session keys derived from the set, which assumes a single Redis node, not a cluster.</p>
+ *
+ * <p>
+ * Sessions created before this layout ({@code refresh::token:} values indexed by {@code refresh::user:})
+ * are still honoured: a legacy token is rotated into a new session, revoked on sign-out and detected on reuse.
+ * The legacy keys expire after {@code jwt.auth.refresh_expires_in}, after which that path can be removed.</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenRedisService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    /**
+     * Outcome of {@link #rotateSession}.
+     */
+    public enum RotateResult {
+        ROTATED,
+        INVALID,
+        REUSED
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisTemplate<String, Object> legacyRedisTemplate;
 
     @Value("${jwt.auth.refresh_expires_in}")
     private int refreshExpiresIn;
 
     private static final int MAX_SESSION_PER_USER = 3;
-    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(3);
-    private static final String TOKEN_KEY_PREFIX = "refresh::token:";
-    private static final String USER_KEY_PREFIX = "refresh::user:";
-    private static final String LOCK_KEY_PREFIX = "refresh::lock::user:";
+    private static final String TOKEN_KEY_PREFIX = "refresh::session:";
+    private static final String USER_KEY_PREFIX = "refresh::sessions:user:";
+    private static final String LEGACY_TOKEN_KEY_PREFIX = "refresh::token:";
+    private static final String LEGACY_USER_KEY_PREFIX = "refresh::user:";
     private static final Duration REVOKED_TOKEN_TTL = Duration.ofMinutes(30);
 
     /**
-     * Builds the Redis key for storing session list of a specific user.
-     *
-     * @param userId The UUID of the user
-     * @return Redis key as a string
+     * Shared functions. {@code revoke} keeps a revoked session for {@link #REVOKED_TOKEN_TTL} to detect reuse,
+     * {@code save} stores a session and revokes the oldest ones beyond the per-user maximum.
      */
-    private String userSessionKey(UUID userId) {
-        return USER_KEY_PREFIX + userId;
-    }
+    private static final String FUNCTIONS = """
+            local function revoke(userKey, tokenId, revokedTtl)
+                local key = ARGV[1] .. tokenId
+                if redis.call('EXISTS', key) == 1 then
+                    redis.call('HSET', key, 'revoked', '1')
+                    redis.call('EXPIRE', key, revokedTtl)
+                end
+                redis.call('ZREM', userKey, tokenId)
+            end
 
-    /**
-     * Builds the Redis key for storing a specific token's data.
-     *
-     * @param tokenId The ID of the refresh token
-     * @return Redis key as a string
-     */
-    private String tokenDataKey(String tokenId) {
-        return TOKEN_KEY_PREFIX + tokenId;
-    }
+            local function save(userKey, tokenId, userId, now, ip, userAgent, ttl, maxSessions, revokedTtl)
+                local key = ARGV[1] .. tokenId
+                redis.call('HSET', key, 'userId', userId, 'createAt', now, 'ip', ip, 'userAgent', userAgent, 'revoked', '0')
+                redis.call('EXPIRE', key, ttl)
+                redis.call('ZADD', userKey, now, tokenId)
+                redis.call('EXPIRE', userKey, ttl)
+                local excess = redis.call('ZCARD', userKey) - tonumber(maxSessions)
+                if excess > 0 then
+                    for _, oldest in ipairs(redis.call('ZRANGE', userKey, 0, excess - 1)) do
+                        revoke(userKey, oldest, revokedTtl)
+                    end
+                end
+                return excess
+            end
+            """;
+
+    // KEYS: userKey | ARGV: prefix, tokenId, userId, now, ip, userAgent, ttl, maxSessions, revokedTtl
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(FUNCTIONS + """
+            return save(KEYS[1], ARGV[2], ARGV[3], ARGV[4], ARGV[5], ARGV[6], ARGV[7], ARGV[8], ARGV[9])
+            """, Long.class);
+
+    // KEYS: userKey | ARGV: prefix, oldTokenId, userId, newTokenId, now, ip, userAgent, ttl, maxSessions, revokedTtl
+    // Trả về 1: rotated, 0: invalid, -1: token đã bị revoke được dùng lại, mọi session của user bị revoke
+    private static final RedisScript<Long> ROTATE_SCRIPT = new DefaultRedisScript<>(FUNCTIONS + """
+            local old = redis.call('HMGET', ARGV[1] .. ARGV[2], 'userId', 'revoked')
+            if not old[1] then
+                return 0
+            end
+            if old[2] == '1' then
+                for _, tokenId in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+                    revoke(KEYS[1], tokenId, ARGV[10])
+                end
+                redis.call('DEL', KEYS[1])
+                return -1
+            end
+            if old[1] ~= ARGV[3] or not redis.call('ZSCORE', KEYS[1], ARGV[2]) then
+                return 0
+            end
+            revoke(KEYS[1], ARGV[2], ARGV[10])
+            save(KEYS[1], ARGV[4], ARGV[3], ARGV[5], ARGV[6], ARGV[7], ARGV[8], ARGV[9], ARGV[10])
+            return 1
+            """, Long.class);
+
+    // KEYS: userKey | ARGV: prefix, tokenId, revokedTtl
+    private static final RedisScript<Long> REVOKE_SCRIPT = new DefaultRedisScript<>(FUNCTIONS + """
+            revoke(KEYS[1], ARGV[2], ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS: userKey | ARGV: prefix, revokedTtl
+    private static final RedisScript<Long> REVOKE_ALL_SCRIPT = new DefaultRedisScript<>(FUNCTIONS + """
+            local tokens = redis.call('ZRANGE', KEYS[1], 0, -1)
+            for _, tokenId in ipairs(tokens) do
+                revoke(KEYS[1], tokenId, ARGV[2])
+            end
+            redis.call('DEL', KEYS[1])
+            return #tokens
+            """, Long.class);
 
     /**
-     * Builds the Redis key for locking login operation per user.
+     * Builds the Redis key for storing session list of a specific user.
      *
      * @param userId The UUID of the user
      * @return Redis key as a string
      */
-    private String lockKey(UUID userId) {
-        return LOCK_KEY_PREFIX + userId;
+    private String userSessionKey(UUID userId) {
+        return USER_KEY_PREFIX + userId;
     }
 
     /**
      * <p>
      * Saves a refresh token session for the user.</p>
      * <p>
-     * Applies a lock to prevent concurrent modifications.</p>
-     * <p>
      * If number of active sessions exceeds max allowed, old sessions will be
      * revoked.</p>
      *
@@ -86,71 +162,56 @@ public class RefreshTokenRedisService {
      * @param userAgent User-Agent header from the client
      */
     public void saveSession(UUID userId, String tokenId, String ip, String userAgent) {
-        String lockKey = lockKey(userId);
-        Boolean acquired = redisTemplate.opsForValue()
-                .setIfAbsent(lockKey, "1", LOCK_TIMEOUT);
-
-        if (Boolean.TRUE.equals(acquired)) {
-            try {
-                doSaveSession(userId, tokenId, ip, userAgent);
-            } finally {
-                redisTemplate.delete(lockKey);
-            }
-        } else {
-            log.warn("Too many concurrent logins for user {}. Lock is already held.", userId);
-            throw new RuntimeException("Too many concurrent login requests. Please try again.");
-        }
-    }
-
-    /**
-     * Internal logic to persist the token session and handle max session
-     * limits.
-     */
-    private void doSaveSession(UUID userId, String tokenId, String ip, String userAgent) {
-        String userKey = userSessionKey(userId);
-        String tokenKey = tokenDataKey(tokenId);
-        Instant now = Instant.now();
-
-        RefreshTokenRedisData data = RefreshTokenRedisData.builder()
-                .userId(userId)
-                .createAt(now.getEpochSecond())
-                .ip(ip)
-                .userAgent(userAgent)
-                .revoked(false)
-                .build();
-
-        redisTemplate.opsForValue().set(tokenKey, data, Duration.ofSeconds(refreshExpiresIn));
-        redisTemplate.opsForZSet().add(userKey, tokenId, now.getEpochSecond());
-        redisTemplate.expire(userKey, Duration.ofSeconds(refreshExpiresIn));
-
-        Long sessionCount = redisTemplate.opsForZSet().size(userKey);
-
-        if (sessionCount != null && sessionCount > MAX_SESSION_PER_USER) {
-            trimOldSessions(userId, sessionCount - MAX_SESSION_PER_USER);
+        Long trimmed = redisTemplate.execute(SAVE_SCRIPT, List.of(userSessionKey(userId)),
+                TOKEN_KEY_PREFIX,
+                tokenId,
+                userId.toString(),
+                String.valueOf(Instant.now().getEpochSecond()),
+                nullToEmpty(ip),
+                nullToEmpty(userAgent),
+                String.valueOf(refreshExpiresIn),
+                String.valueOf(MAX_SESSION_PER_USER),
+                String.valueOf(REVOKED_TOKEN_TTL.toSeconds()));
+        if (trimmed != null && trimmed > 0) {
+            log.info("Trim {} old tokens for user {}", trimmed, userId);
         }
     }
 
     /**
-     * Removes oldest sessions if user exceeds allowed session count.
+     * <p>
+     * Validates the presented refresh token, revokes it and saves the new session, atomically.</p>
+     * <p>
+     * A token that was already revoked is treated as a reuse attack: every session of the user is revoked.</p>
      *
      * @param userId The UUID of the user
-     * @param numberToRemove How many sessions to remove
+     * @param oldTokenId The refresh token ID being presented
+     * @param newTokenId The refresh token ID replacing it
+     * @param ip IP address of the client
+     * @param userAgent User-Agent header from the client
+     * @return whether the session was rotated, was not valid, or was a reused revoked token
      */
-    private void trimOldSessions(UUID userId, long numberToRemove) {
-        String userKey = userSessionKey(userId);
+    public RotateResult rotateSession(UUID userId, String oldTokenId, String newTokenId, String ip, String userAgent) {
+        Long result = redisTemplate.execute(ROTATE_SCRIPT, List.of(userSessionKey(userId)),
+                TOKEN_KEY_PREFIX,
+                oldTokenId,
+                userId.toString(),
+                newTokenId,
+                String.valueOf(Instant.now().getEpochSecond()),
+                nullToEmpty(ip),
+                nullToEmpty(userAgent),
+                String.valueOf(refreshExpiresIn),
+                String.valueOf(MAX_SESSION_PER_USER),
+                String.valueOf(REVOKED_TOKEN_TTL.toSeconds()));
 
-        Set<Object> oldestTokens = redisTemplate.opsForZSet()
-                .range(userKey, 0, numberToRemove - 1);
-
-        if (oldestTokens == null) {
-            return;
+        if (result == null || result == 0) {
+            return rotateLegacySession(userId, oldTokenId, newTokenId, ip, userAgent);
         }
-
-        for (Object tokenObj : oldestTokens) {
-            String tokenId = tokenObj.toString();
-            revokeToken(userId, tokenId);
-            log.info("Trim old token {} for user {}", tokenId, userId);
+        if (result < 0) {
+            // suspicious activity
+            log.warn("Refresh Token revoked - possible reuse attack: tokenId={}, userId={}", oldTokenId, userId);
+            return RotateResult.REUSED;
         }
+        return RotateResult.ROTATED;
     }
 
     /**
@@ -161,94 +222,61 @@ public class RefreshTokenRedisService {
      * @param tokenId The refresh token ID
      */
     public void revokeToken(UUID userId, String tokenId) {
-        String tokenKey = tokenDataKey(tokenId);
-        Object data = redisTemplate.opsForValue().get(tokenKey);
-        if (data instanceof RefreshTokenRedisData tokenData) {
-            redisTemplate.opsForZSet().remove(userSessionKey(userId), tokenId);
-            tokenData.setRevoked(true);
-            redisTemplate.opsForValue().set(tokenKey, tokenData, REVOKED_TOKEN_TTL);
-            log.info("Revoke token {} for user {}", tokenId, userId);
-        }
+        redisTemplate.execute(REVOKE_SCRIPT, List.of(userSessionKey(userId)),
+                TOKEN_KEY_PREFIX,
+                tokenId,
+                String.valueOf(REVOKED_TOKEN_TTL.toSeconds()));
+        legacyRedisTemplate.delete(LEGACY_TOKEN_KEY_PREFIX + tokenId);
+        legacyRedisTemplate.opsForZSet().remove(LEGACY_USER_KEY_PREFIX + userId, tokenId);
+        log.info("Revoke token {} for user {}", tokenId, userId);
     }
 
     /**
-     * Validate whether a refresh token is still valid (not revoked, not
-     * expired, still linked to user).
+     * Revokes all tokens of a user.
      *
      * @param userId The UUID of the user
-     * @param tokenId The refresh token ID
-     * @return true if valid, false otherwise
      */
-    public boolean validateRefreshToken(UUID userId, String tokenId) {
-        if (isTokenRevoked(tokenId)) {
-            // suspicious activity
-            log.warn("Refresh Token revoked - possible reuse attack: tokenId={}, userId={}", tokenId, userId);
-            handleSuspiciousActivity(userId); //Action
-            return false;
-        }
-
-        return isValid(userId, tokenId);
+    public void revokeAllSessions(UUID userId) {
+        Long revoked = redisTemplate.execute(REVOKE_ALL_SCRIPT, List.of(userSessionKey(userId)),
+                TOKEN_KEY_PREFIX,
+                String.valueOf(REVOKED_TOKEN_TTL.toSeconds()));
+        revokeAllLegacySessions(userId);
+        log.info("Revoke {} tokens for user {}", revoked, userId);
     }
 
     /**
-     * Revokes all tokens for a user in case of suspicious activity.
-     * <p>
-     * This is used to mitigate reuse token attacks.</p>
-     *
-     * @param userId The UUID of the user
+     * Rotates a session stored in the legacy layout into a new one. Deleting the legacy key is the claim,
+     * so two concurrent refreshes with the same token cannot both succeed.
      */
-    private void handleSuspiciousActivity(UUID userId) {
-        //Action
-        String userKey = userSessionKey(userId);
-        Set<Object> allTokens = redisTemplate.opsForZSet().range(userKey, 0, -1);
-        if (allTokens != null) {
-            for (Object tokenObj : allTokens) {
-                revokeToken(userId, tokenObj.toString());
-            }
+    private RotateResult rotateLegacySession(UUID userId, String oldTokenId, String newTokenId, String ip, String userAgent) {
+        String legacyKey = LEGACY_TOKEN_KEY_PREFIX + oldTokenId;
+        Object value = legacyRedisTemplate.opsForValue().get(legacyKey);
+        if (!(value instanceof RefreshTokenRedisData data) || !userId.equals(data.getUserId())) {
+            return RotateResult.INVALID;
         }
-        redisTemplate.delete(userKey);
-    }
-
-    /**
-     * Checks if the token is valid (not revoked, still linked to user).
-     *
-     * @param userId The UUID of the user
-     * @param tokenId The refresh token ID
-     * @return true if the token is valid, false otherwise
-     */
-    public boolean isValid(UUID userId, String tokenId) {
-        String tokenKey = tokenDataKey(tokenId);
-        String userKey = userSessionKey(userId);
-
-        Object data = redisTemplate.opsForValue().get(tokenKey);
-        if (!(data instanceof RefreshTokenRedisData tokenData)) {
-            return false;
+        if (data.isRevoked()) {
+            log.warn("Refresh Token revoked - possible reuse attack: tokenId={}, userId={}", oldTokenId, userId);
+            revokeAllSessions(userId);
+            return RotateResult.REUSED;
         }
-
-        if (!tokenData.getUserId().equals(userId)) {
-            return false;
+        if (!Boolean.TRUE.equals(legacyRedisTemplate.delete(legacyKey))) {
+            return RotateResult.INVALID;
         }
+        legacyRedisTemplate.opsForZSet().remove(LEGACY_USER_KEY_PREFIX + userId, oldTokenId);
+        saveSession(userId, newTokenId, ip, userAgent);
+        return RotateResult.ROTATED;
+    }
 
-        Double score = redisTemplate.opsForZSet().score(userKey, tokenId);
-        if (score == null) {
-            return false;
+    private void revokeAllLegacySessions(UUID userId) {
+        String legacyUserKey = LEGACY_USER_KEY_PREFIX + userId;
+        Set<Object> tokenIds = legacyRedisTemplate.opsForZSet().range(legacyUserKey, 0, -1);
+        if (tokenIds != null && !tokenIds.isEmpty()) {
+            legacyRedisTemplate.delete(tokenIds.stream().map(tokenId -> LEGACY_TOKEN_KEY_PREFIX + tokenId).toList());
         }
-
-        return !tokenData.isRevoked();
+        legacyRedisTemplate.delete(legacyUserKey);
     }
 
-    /**
-     * Checks whether the token has been revoked.
-     *
-     * @param tokenId The refresh token ID
-     * @return true if the token is revoked, false otherwise
-     */
-    public boolean isTokenRevoked(String tokenId) {
-        String tokenKey = tokenDataKey(tokenId);
-        Object data = redisTemplate.opsForValue().get(tokenKey);
-        if (data instanceof RefreshTokenRedisData tokenData) {
-            return tokenData.isRevoked();
-        }
-        return false;
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
     }
 }
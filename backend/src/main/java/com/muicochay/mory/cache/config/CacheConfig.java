@@ -1,12 +1,17 @@
 package com.muicochay.mory.cache.config;
 
+import com.muicochay.mory.cache.tiered.TieredCacheManager;
+import com.muicochay.mory.shared.redis.CodecRedisSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -15,42 +20,64 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Configures Redis-based caching with custom TTLs per cache and JSON
- * serialization.
+ * Configures a two-tier cache: an optional in-process tier in front of
+ * Redis, with custom TTLs per cache and {@link CodecRedisSerializer} values on
+ * the Redis tier.
  */
 @Configuration
 @EnableConfigurationProperties(CacheTtlProperties.class)
 public class CacheConfig {
 
-    private static final RedisSerializationContext.SerializationPair<Object> JSON_SERIALIZER
-            = RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer());
-
     private static final RedisSerializationContext.SerializationPair<String> STRING_SERIALIZER
             = RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer());
 
 
-    private RedisCacheConfiguration ttlConfig(Duration ttl) {
+    private RedisCacheConfiguration ttlConfig(Duration ttl, RedisSerializationContext.SerializationPair<Object> valueSerializer) {
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(ttl)
                 .serializeKeysWith(STRING_SERIALIZER)
-                .serializeValuesWith(JSON_SERIALIZER);
+                .serializeValuesWith(valueSerializer);
     }
 
-    
-
-    @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory factory, CacheTtlProperties cacheTtlProperties) {
+    private RedisCacheManager redisCacheManager(
+            RedisConnectionFactory factory,
+            CacheTtlProperties cacheTtlProperties,
+            CodecRedisSerializer redisValueSerializer
+    ) {
+        RedisSerializationContext.SerializationPair<Object> valueSerializer
+                = RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer);
         Map<String, RedisCacheConfiguration> configurationMap = new HashMap<>();
 
         cacheTtlProperties.getTtl().forEach((cacheName, ttl)
-                -> configurationMap.put(cacheName, ttlConfig(ttl))
+                -> configurationMap.put(cacheName, ttlConfig(ttl, valueSerializer))
         );
 
         Duration defaultTtl = cacheTtlProperties.getTtlFor("default", Duration.ofMinutes(10));
 
-        return RedisCacheManager.builder(factory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory)
                 .withInitialCacheConfigurations(configurationMap)
-                .cacheDefaults(ttlConfig(defaultTtl))
+                .cacheDefaults(ttlConfig(defaultTtl, valueSerializer))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    @Bean
+    public TieredCacheManager cacheManager(
+            RedisConnectionFactory factory,
+            CacheTtlProperties cacheTtlProperties,
+            CodecRedisSerializer redisValueSerializer,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            MeterRegistry meterRegistry
+    ) {
+        TieredCacheManager cacheManager = new TieredCacheManager(
+                redisCacheManager(factory, cacheTtlProperties, redisValueSerializer),
+                cacheTtlProperties,
+                stringRedisTemplate,
+                meterRegistry
+        );
+        redisMessageListenerContainer.addMessageListener(cacheManager, new ChannelTopic(TieredCacheManager.EVICTION_CHANNEL));
+        return cacheManager;
     }
 }
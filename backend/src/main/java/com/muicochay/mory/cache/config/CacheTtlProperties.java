@@ -11,10 +11,15 @@ import lombok.Getter;
 import lombok.Setter;
 
 /**
- * Binds custom TTL (time-to-live) settings for each cache name from application
+ * Binds the per-cache settings of the two cache tiers from application
  * properties.
  *
  * <p>
+ * {@code ttl} is the Redis (L2) TTL, {@code tier} selects where a cache lives
+ * (defaults to {@code remote}) and {@code local} sizes the in-process (L1)
+ * tier.</p>
+ *
+ * <p>
  * Example usage in <code>application.yml</code>:</p>
  *
  * <pre>{@code
@@ -23,17 +28,54 @@ import lombok.Setter;
  *     ttl:
  *       userCache: 5m
  *       sessionCache: 30m
+ *     tier:
+ *       userCache: both
+ *       sessionCache: remote
+ *     local:
+ *       userCache:
+ *         maximum-size: 10000
+ *         ttl: 1m
  * }</pre>
  */
 @Component
-@ConfigurationProperties(prefix = "custom.cache.ttl")
+@ConfigurationProperties(prefix = "custom.cache")
 @Getter
 @Setter
 public class CacheTtlProperties {
 
     private Map<String, Duration> ttl = new HashMap<>();
+    private Map<String, Tier> tier = new HashMap<>();
+    private Map<String, Local> local = new HashMap<>();
 
     public Duration getTtlFor(String cacheName, Duration defaultTtl) {
         return ttl.getOrDefault(cacheName, defaultTtl);
     }
+
+    public Tier getTierFor(String cacheName) {
+        return tier.getOrDefault(cacheName, Tier.REMOTE);
+    }
+
+    public Local getLocalFor(String cacheName) {
+        return local.getOrDefault(cacheName, new Local());
+    }
+
+    public enum Tier {
+        LOCAL, REMOTE, BOTH;
+
+        public boolean hasLocal() {
+            return this != REMOTE;
+        }
+
+        public boolean hasRemote() {
+            return this != LOCAL;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Local {
+
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(1);
+    }
 }
@@ -0,0 +1,155 @@
+package com.muicochay.mory.cache.tiered;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A cache backed by an optional in-process tier (L1) and an optional Redis tier (L2).
+ *
+ * <p>Reads go through L1 then L2, and L2 hits are copied into L1. Writes and evictions go to both tiers;
+ * evictions are also broadcast by the {@link TieredCacheManager} so other nodes drop their L1 copy.
+ * L1 keys are the string form of the cache key, which is also what travels in eviction messages.</p>
+ */
+public class TieredCache implements Cache {
+
+    private static final String METRIC_NAME = "cache.tier.gets";
+
+    private final String name;
+    private final Cache local;
+    private final Cache remote;
+    private final TieredCacheManager manager;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    TieredCache(String name, Cache local, Cache remote, TieredCacheManager manager, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (local != null) {
+            ValueWrapper value = local.get(localKey(key));
+            (value != null ? localHits : localMisses).increment();
+            if (value != null) {
+                return value;
+            }
+        }
+        if (remote != null) {
+            ValueWrapper value = remote.get(key);
+            (value != null ? remoteHits : remoteMisses).increment();
+            if (value != null && local != null) {
+                local.put(localKey(key), value.get());
+            }
+            return value;
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        if (remote == null) {
+            return local.get(localKey(key), valueLoader);
+        }
+        T value = remote.get(key, valueLoader);
+        if (local != null) {
+            local.put(localKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (remote != null) {
+            remote.put(key, value);
+        }
+        if (local != null) {
+            local.put(localKey(key), value);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (remote != null) {
+            remote.evict(key);
+        }
+        evictLocal(localKey(key));
+        if (local != null) {
+            manager.broadcastEvict(name, localKey(key));
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (remote != null) {
+            remote.clear();
+        }
+        clearLocal();
+        if (local != null) {
+            manager.broadcastClear(name);
+        }
+    }
+
+    void evictLocal(String key) {
+        if (local != null) {
+            local.evict(key);
+        }
+    }
+
+    void clearLocal() {
+        if (local != null) {
+            local.clear();
+        }
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder(METRIC_NAME)
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.muicochay.mory.cache.tiered;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muicochay.mory.cache.config.CacheTtlProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Builds a {@link TieredCache} per cache name, with the tiers selected by {@link CacheTtlProperties}.
+ *
+ * <p>Evictions of caches with an in-process tier are published on {@link #EVICTION_CHANNEL} as
+ * {@code evict\n<cache>\n<key>} or {@code clear\n<cache>}; every node, including the sender, drops the
+ * matching L1 entries when the message arrives.</p>
+ */
+@Slf4j
+public class TieredCacheManager implements CacheManager, MessageListener {
+
+    public static final String EVICTION_CHANNEL = "cache::evict";
+
+    private static final String EVICT = "evict";
+    private static final String CLEAR = "clear";
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheTtlProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+    public TieredCacheManager(
+            RedisCacheManager redisCacheManager,
+            CacheTtlProperties properties,
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        TieredCache cache = parts.length > 1 ? caches.get(parts[1]) : null;
+        if (cache == null) {
+            return;
+        }
+        if (EVICT.equals(parts[0]) && parts.length == 3) {
+            cache.evictLocal(parts[2]);
+        } else if (CLEAR.equals(parts[0])) {
+            cache.clearLocal();
+        }
+    }
+
+    void broadcastEvict(String cacheName, String key) {
+        publish(EVICT + "\n" + cacheName + "\n" + key);
+    }
+
+    void broadcastClear(String cacheName) {
+        publish(CLEAR + "\n" + cacheName);
+    }
+
+    private void publish(String body) {
+        try {
+            stringRedisTemplate.convertAndSend(EVICTION_CHANNEL, body);
+        } catch (Exception e) {
+            // L1 của các node khác sẽ hết hạn theo TTL
+            log.error("Failed to broadcast cache eviction '{}'", body.replace('\n', ' '), e);
+        }
+    }
+
+    private TieredCache createCache(String name) {
+        CacheTtlProperties.Tier tier = properties.getTierFor(name);
+
+        Cache local = null;
+        if (tier.hasLocal()) {
+            CacheTtlProperties.Local spec = properties.getLocalFor(name);
+            local = new CaffeineCache(name, Caffeine.newBuilder()
+                    .maximumSize(spec.getMaximumSize())
+                    .expireAfterWrite(spec.getTtl())
+                    .build());
+        }
+        Cache remote = tier.hasRemote() ? redisCacheManager.getCache(name) : null;
+        return new TieredCache(name, local, remote, this, meterRegistry);
+    }
+}
@@ -0,0 +1,148 @@
+package com.muicochay.mory.connection.cache;
+
+import com.muicochay.mory.connection.enums.ConnectionStatus;
+import com.muicochay.mory.connection.event.ConnectionChangedEvent;
+import com.muicochay.mory.connection.repository.ConnectionRepository;
+import com.muicochay.mory.connection.utils.ConnectionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Caches allow/deny decisions of connection-based access checks, keyed by {@code (scope, requester, target)}.
+ *
+ * <p>Every user has a graph version that is bumped after each committed change of one of their connections.
+ * A decision is stored together with the versions of the users whose connections it was computed from, and
+ * is only served while those versions are unchanged; the versions and the decision are read in one
+ * {@code MGET}. A PROFILE decision (direct or mutual connection) depends on both users; a STORY decision
+ * depends on the requester and on the participants of the story, which are fingerprinted into the
+ * stored value instead of being versioned.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccessDecisionCache {
+
+    public enum Scope {
+        PROFILE,
+        STORY
+    }
+
+    private static final String DECISION_PREFIX = "access::decision:";
+    private static final String VERSION_PREFIX = "access::graph-version:";
+    private static final Duration DECISION_TTL = Duration.ofMinutes(30);
+    // Lớn hơn DECISION_TTL để version hết hạn rồi tăng lại không thể trùng với một decision cũ còn sống
+    private static final Duration VERSION_TTL = Duration.ofDays(7);
+    private static final String ALLOW = "1";
+    private static final String DENY = "0";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConnectionRepository connectionRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Whether the requester may see the profile of the user: they are connected, or share a connection.
+     */
+    public boolean canViewProfile(UUID requesterId, UUID userId) {
+        return decide(Scope.PROFILE, requesterId, userId, List.of(requesterId, userId), "", () ->
+                connectionRepository.existsDirectOrMutualConnection(
+                        ConnectionUtils.generateConnectionId(requesterId, userId),
+                        requesterId,
+                        userId,
+                        ConnectionStatus.CONNECTED.name()
+                ));
+    }
+
+    /**
+     * Whether a requester outside the story is connected to at least one of its participants.
+     */
+    public boolean canViewStory(UUID requesterId, UUID storyId, Collection<UUID> participantIds) {
+        List<UUID> participants = participantIds.stream().distinct().sorted().toList();
+        String fingerprint = Integer.toHexString(participants.hashCode());
+        return decide(Scope.STORY, requesterId, storyId, List.of(requesterId), fingerprint, () ->
+                connectionRepository.existsAnyConnectionByIds(
+                        participants.stream()
+                                .map(userId -> ConnectionUtils.generateConnectionId(requesterId, userId))
+                                .toList(),
+                        List.of(ConnectionStatus.CONNECTED.name())
+                ));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        List<String> keys = List.of(versionKey(event.userA()), versionKey(event.userB()));
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String key : keys) {
+                    conn.incr(key);
+                    conn.expire(key, VERSION_TTL.toSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to bump access versions of {} and {}", event.userA(), event.userB(), e);
+        }
+    }
+
+    private boolean decide(
+            Scope scope,
+            UUID requesterId,
+            UUID targetId,
+            List<UUID> versionedUserIds,
+            String fingerprint,
+            BooleanSupplier loader
+    ) {
+        String decisionKey = DECISION_PREFIX + scope.name().toLowerCase() + ":" + requesterId + ":" + targetId;
+        List<String> keys = new ArrayList<>(versionedUserIds.size() + 1);
+        versionedUserIds.forEach(userId -> keys.add(versionKey(userId)));
+        keys.add(decisionKey);
+
+        String stamp;
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            StringJoiner joiner = new StringJoiner(",", "", "|" + fingerprint + "|");
+            for (int i = 0; i < versionedUserIds.size(); i++) {
+                joiner.add(Objects.requireNonNullElse(values.get(i), "0"));
+            }
+            stamp = joiner.toString();
+
+            String cached = values.getLast();
+            if (cached != null && cached.startsWith(stamp)) {
+                count(scope, "hit");
+                return ALLOW.equals(cached.substring(stamp.length()));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read access decision {}, checking the database", decisionKey, e);
+            count(scope, "error");
+            return loader.getAsBoolean();
+        }
+
+        count(scope, "miss");
+        boolean allowed = loader.getAsBoolean();
+        try {
+            redisTemplate.opsForValue().set(decisionKey, stamp + (allowed ? ALLOW : DENY), DECISION_TTL);
+        } catch (Exception e) {
+            log.warn("Failed to store access decision {}", decisionKey, e);
+        }
+        return allowed;
+    }
+
+    private void count(Scope scope, String result) {
+        meterRegistry.counter("access.decision", "scope", scope.name().toLowerCase(), "result", result).increment();
+    }
+
+    private String versionKey(UUID userId) {
+        return VERSION_PREFIX + userId;
+    }
+}
@@ -0,0 +1,287 @@
+package com.muicochay.mory.connection.cache;
+
+import com.muicochay.mory.connection.entity.Connection;
+import com.muicochay.mory.connection.enums.ConnectionStatus;
+import com.muicochay.mory.connection.enums.ConnectionType;
+import com.muicochay.mory.connection.event.ConnectionChangedEvent;
+import com.muicochay.mory.connection.interfaces.ConnectedUserProjection;
+import com.muicochay.mory.connection.interfaces.ConnectionEdgeProjection;
+import com.muicochay.mory.connection.repository.ConnectionRepository;
+import com.muicochay.mory.connection.utils.ConnectionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Per-user adjacency of CONNECTED peers kept in Redis hashes ({@code peerId -> ConnectionType}).
+ *
+ * <p>A hash is built from Postgres the first time it is read and carries a {@link #LOADED_FIELD} marker,
+ * so a user without connections is still a hit. After every committed connection change the current row
+ * is re-read and both users' hashes are patched by a script, but only if they exist; absent hashes are
+ * left to the next lazy rebuild.</p>
+ *
+ * <p>Each user also has a version counter that every change increments. A rebuild reads the version before
+ * querying Postgres and only stores its hash if the version is unchanged, so a rebuild that raced a change
+ * cannot overwrite the patched adjacency with the rows it read before the change.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConnectionAdjacencyCache {
+
+    private static final String KEY_PREFIX = "connection::adj:";
+    private static final String VERSION_KEY_PREFIX = "connection::adj-version:";
+    private static final String LOADED_FIELD = "_";
+    private static final Duration TTL = Duration.ofHours(12);
+
+    /**
+     * KEYS: adjacency of A, adjacency of B, version of A, version of B. ARGV: B, A, type ('' when removed), ttl.
+     */
+    private static final RedisScript<Long> APPLY_CHANGE_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, 2 do
+                redis.call('INCR', KEYS[i + 2])
+                redis.call('EXPIRE', KEYS[i + 2], ARGV[4])
+                if redis.call('EXISTS', KEYS[i]) == 1 then
+                    if ARGV[3] == '' then
+                        redis.call('HDEL', KEYS[i], ARGV[i])
+                    else
+                        redis.call('HSET', KEYS[i], ARGV[i], ARGV[3])
+                    end
+                end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS: adjacency, version. ARGV: version read before the rebuild, ttl, then field/value pairs.
+     * Returns 1 if stored, 0 if the version moved.
+     */
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('DEL', KEYS[1])
+            for i = 3, #ARGV, 2000 do
+                redis.call('HSET', KEYS[1], unpack(ARGV, i, math.min(i + 1999, #ARGV)))
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConnectionRepository connectionRepository;
+
+    /**
+     * Returns the type of the CONNECTED connection between two users, or {@code null} if there is none.
+     */
+    public ConnectionType typeOf(UUID userId, UUID peerId) {
+        if (userId.equals(peerId)) {
+            return null;
+        }
+        List<String> values = hash().multiGet(key(userId), List.of(LOADED_FIELD, peerId.toString()));
+        if (values.getFirst() == null) {
+            return load(userId).get(peerId);
+        }
+        return parse(values.get(1));
+    }
+
+    /**
+     * Returns the candidates that are CONNECTED to the user.
+     */
+    public Set<UUID> filterConnected(UUID userId, Collection<UUID> candidateIds) {
+        if (candidateIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<UUID> candidates = new ArrayList<>(new LinkedHashSet<>(candidateIds));
+        List<String> fields = new ArrayList<>(candidates.size() + 1);
+        fields.add(LOADED_FIELD);
+        candidates.forEach(id -> fields.add(id.toString()));
+
+        List<String> values = hash().multiGet(key(userId), fields);
+        Set<UUID> connected = new HashSet<>();
+        if (values.getFirst() == null) {
+            Map<UUID, ConnectionType> adjacency = load(userId);
+            candidates.stream().filter(adjacency::containsKey).forEach(connected::add);
+            return connected;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            if (values.get(i + 1) != null) {
+                connected.add(candidates.get(i));
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * Returns every CONNECTED peer of the user with the type of the connection.
+     */
+    public Map<UUID, ConnectionType> connectionsOf(UUID userId) {
+        Map<String, String> entries = hash().entries(key(userId));
+        if (!entries.containsKey(LOADED_FIELD)) {
+            return load(userId);
+        }
+        return toAdjacency(entries);
+    }
+
+    /**
+     * Returns the adjacency of several users, read in one pipeline; missing hashes are rebuilt together with
+     * one query and written back in one pipeline.
+     */
+    public Map<UUID, Map<UUID, ConnectionType>> connectionsOf(Collection<UUID> userIds) {
+        List<UUID> users = new ArrayList<>(new LinkedHashSet<>(userIds));
+        if (users.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            users.forEach(userId -> conn.hGetAll(key(userId)));
+            return null;
+        });
+
+        Map<UUID, Map<UUID, ConnectionType>> adjacencies = new HashMap<>(users.size());
+        List<UUID> missing = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> entries = (Map<String, String>) results.get(i);
+            UUID userId = users.get(i);
+            if (entries != null && entries.containsKey(LOADED_FIELD)) {
+                adjacencies.put(userId, toAdjacency(entries));
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            adjacencies.putAll(loadAll(missing));
+        }
+        return adjacencies;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        UUID userA = event.userA();
+        UUID userB = event.userB();
+        try {
+            String type = connectionRepository.findById(ConnectionUtils.generateConnectionId(userA, userB))
+                    .filter(c -> c.getStatus() == ConnectionStatus.CONNECTED)
+                    .map(Connection::getConnectionType)
+                    .map(Enum::name)
+                    .orElse("");
+            redisTemplate.execute(APPLY_CHANGE_SCRIPT,
+                    List.of(key(userA), key(userB), versionKey(userA), versionKey(userB)),
+                    userB.toString(), userA.toString(), type, String.valueOf(TTL.toSeconds()));
+        } catch (Exception e) {
+            log.warn("Failed to patch adjacency of {} and {}, dropping it", userA, userB, e);
+            redisTemplate.delete(List.of(key(userA), key(userB)));
+        }
+    }
+
+    private Map<UUID, ConnectionType> load(UUID userId) {
+        String version = Objects.requireNonNullElse(redisTemplate.opsForValue().get(versionKey(userId)), "0");
+        List<ConnectedUserProjection> rows = connectionRepository
+                .findConnectedUsersWithTypeByCreatorAndStatus(userId, ConnectionStatus.CONNECTED);
+
+        Map<UUID, ConnectionType> adjacency = new HashMap<>(rows.size());
+        for (ConnectedUserProjection row : rows) {
+            if (!row.getUserId().equals(userId)) {
+                adjacency.put(row.getUserId(), row.getConnectionType());
+            }
+        }
+
+        redisTemplate.execute(STORE_SCRIPT, List.of(key(userId), versionKey(userId)), storeArgs(version, adjacency));
+        return adjacency;
+    }
+
+    private Map<UUID, Map<UUID, ConnectionType>> loadAll(List<UUID> userIds) {
+        if (userIds.size() == 1) {
+            return Map.of(userIds.getFirst(), load(userIds.getFirst()));
+        }
+        List<String> versions = redisTemplate.opsForValue().multiGet(userIds.stream().map(this::versionKey).toList());
+        List<ConnectionEdgeProjection> edges = connectionRepository
+                .findEdgesByUserIdsAndStatus(userIds, ConnectionStatus.CONNECTED);
+
+        Map<UUID, Map<UUID, ConnectionType>> adjacencies = new HashMap<>(userIds.size());
+        userIds.forEach(userId -> adjacencies.put(userId, new HashMap<>()));
+        for (ConnectionEdgeProjection edge : edges) {
+            if (edge.getUser1Id().equals(edge.getUser2Id())) {
+                continue;
+            }
+            Map<UUID, ConnectionType> adjacency1 = adjacencies.get(edge.getUser1Id());
+            if (adjacency1 != null) {
+                adjacency1.put(edge.getUser2Id(), edge.getConnectionType());
+            }
+            Map<UUID, ConnectionType> adjacency2 = adjacencies.get(edge.getUser2Id());
+            if (adjacency2 != null) {
+                adjacency2.put(edge.getUser1Id(), edge.getConnectionType());
+            }
+        }
+
+        String script = STORE_SCRIPT.getScriptAsString();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int i = 0; i < userIds.size(); i++) {
+                UUID userId = userIds.get(i);
+                String version = versions != null && versions.get(i) != null ? versions.get(i) : "0";
+                String[] args = storeArgs(version, adjacencies.get(userId));
+                String[] keysAndArgs = new String[args.length + 2];
+                keysAndArgs[0] = key(userId);
+                keysAndArgs[1] = versionKey(userId);
+                System.arraycopy(args, 0, keysAndArgs, 2, args.length);
+                conn.eval(script, ReturnType.INTEGER, 2, keysAndArgs);
+            }
+            return null;
+        });
+        return adjacencies;
+    }
+
+    private String[] storeArgs(String version, Map<UUID, ConnectionType> adjacency) {
+        String[] args = new String[4 + adjacency.size() * 2];
+        int i = 0;
+        args[i++] = version;
+        args[i++] = String.valueOf(TTL.toSeconds());
+        args[i++] = LOADED_FIELD;
+        args[i++] = "1";
+        for (Map.Entry<UUID, ConnectionType> entry : adjacency.entrySet()) {
+            args[i++] = entry.getKey().toString();
+            args[i++] = entry.getValue().name();
+        }
+        return args;
+    }
+
+    private Map<UUID, ConnectionType> toAdjacency(Map<String, String> entries) {
+        Map<UUID, ConnectionType> adjacency = new HashMap<>(entries.size());
+        entries.forEach((peerId, type) -> {
+            if (!LOADED_FIELD.equals(peerId)) {
+                adjacency.put(UUID.fromString(peerId), ConnectionType.valueOf(type));
+            }
+        });
+        return adjacency;
+    }
+
+    private ConnectionType parse(String value) {
+        return value != null ? ConnectionType.valueOf(value) : null;
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return redisTemplate.opsForHash();
+    }
+
+    private String key(UUID userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private String versionKey(UUID userId) {
+        return VERSION_KEY_PREFIX + userId;
+    }
+}
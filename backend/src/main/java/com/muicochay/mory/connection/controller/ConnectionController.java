@@ -233,13 +233,13 @@ public class ConnectionController {
     )
     public ResponseEntity<ApiResponse<SuggestedConnectionsPageResponse>> getSuggestedConnections(
             @AuthenticationPrincipal AuthUserPrincipal principal,
-            @RequestParam(name = "cursorCreatedAt", required = false) Instant cursorCreatedAt,
+            @RequestParam(name = "cursorMutualCount", required = false) Integer cursorMutualCount,
             @RequestParam(name = "cursorId", required = false) UUID cursorId,
             @RequestParam(defaultValue = "10") int size
     ) {
         SuggestedConnectionsPageResponse response = connectionService.getSuggestedConnections(
                 principal.getId(),
-                cursorCreatedAt,
+                cursorMutualCount,
                 cursorId,
                 size
         );
@@ -23,6 +23,7 @@ public class ConnectionRequestResponse {
     private ConnectionType oldConnectionType;
     private UserPreviewResponse requester;
     private UserPreviewResponse recipient;
+    private Integer mutualCount;
     private List<UserPreviewResponse> mutualConnections;
     private String message;
     private RequestStatus status;
@@ -21,6 +21,7 @@ public class ConnectionResponse {
     private UUID id;
     private UserPreviewResponse user1;
     private UserPreviewResponse user2;
+    private Integer mutualCount;
     private List<UserPreviewResponse> mutualConnections;
     private ConnectionType connectionType;
     private ConnectionStatus status;
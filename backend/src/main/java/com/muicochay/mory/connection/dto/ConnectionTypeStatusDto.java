@@ -20,5 +20,6 @@ public class ConnectionTypeStatusDto {
     private UUID userId;
     private ConnectionType connectionType;
     private ConnectionStatus status;
+    private Integer mutualCount;
     private List<UserPreviewResponse> mutualConnections;
 }
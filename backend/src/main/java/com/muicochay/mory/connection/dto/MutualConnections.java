@@ -0,0 +1,13 @@
+package com.muicochay.mory.connection.dto;
+
+import com.muicochay.mory.user.dto.UserPreviewResponse;
+
+import java.util.List;
+
+/**
+ * Mutual connections between two users: the full count and a capped preview.
+ */
+public record MutualConnections(int count, List<UserPreviewResponse> preview) {
+
+    public static final MutualConnections NONE = new MutualConnections(0, List.of());
+}
@@ -6,7 +6,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +17,6 @@ public class SuggestedConnectionsPageResponse {
 
     private List<UserPreviewWithMutualConnectionResponse> suggestions;
     private boolean hasNext;
-    private Instant nextCursorCreatedAt;
+    private Integer nextCursorMutualCount;
     private UUID nextCursorId;
 }
@@ -0,0 +1,9 @@
+package com.muicochay.mory.connection.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever the connection between two users is created, retyped, blocked or removed.
+ */
+public record ConnectionChangedEvent(UUID userA, UUID userB) {
+}
@@ -0,0 +1,11 @@
+package com.muicochay.mory.connection.interfaces;
+
+import com.muicochay.mory.connection.enums.ConnectionType;
+
+import java.util.UUID;
+
+public interface ConnectionEdgeProjection {
+    UUID getUser1Id();
+    UUID getUser2Id();
+    ConnectionType getConnectionType();
+}
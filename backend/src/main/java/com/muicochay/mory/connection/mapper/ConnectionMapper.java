@@ -4,11 +4,13 @@ import com.muicochay.mory.connection.dto.ConnectionResponse;
 import com.muicochay.mory.connection.entity.Connection;
 import com.muicochay.mory.user.mapper.UserMapper;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring", uses = {UserMapper.class})
 public interface ConnectionMapper {
+    @Mapping(target = "mutualCount", ignore = true)
     ConnectionResponse toResponse(Connection connection);
 
     List<ConnectionResponse> toResponseList(List<Connection> connectionList);
@@ -4,11 +4,13 @@ import com.muicochay.mory.connection.dto.ConnectionRequestResponse;
 import com.muicochay.mory.connection.entity.ConnectionRequest;
 import com.muicochay.mory.user.mapper.UserMapper;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring", uses = {UserMapper.class})
 public interface ConnectionRequestMapper {
+    @Mapping(target = "mutualCount", ignore = true)
     ConnectionRequestResponse toResponse(ConnectionRequest connectionRequest);
 
     List<ConnectionRequestResponse> toResponseList(List<ConnectionRequest> connectionRequests);
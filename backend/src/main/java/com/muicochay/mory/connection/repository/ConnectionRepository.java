@@ -4,6 +4,7 @@ import com.muicochay.mory.connection.entity.Connection;
 import com.muicochay.mory.connection.enums.ConnectionStatus;
 import com.muicochay.mory.connection.enums.ConnectionType;
 import com.muicochay.mory.connection.interfaces.ConnectedUserProjection;
+import com.muicochay.mory.connection.interfaces.ConnectionEdgeProjection;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -158,4 +159,27 @@ public interface ConnectionRepository extends JpaRepository<Connection, UUID> {
             @Param("status") ConnectionStatus status
     );
 
+    @Query("""
+            SELECT c.user1.id AS user1Id, c.user2.id AS user2Id, c.connectionType AS connectionType
+            FROM Connection c
+            WHERE (c.user1.id IN :userIds OR c.user2.id IN :userIds)
+              AND c.status = :status
+        """)
+    List<ConnectionEdgeProjection> findEdgesByUserIdsAndStatus(
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("status") ConnectionStatus status
+    );
+
+    @Query(value = """
+            SELECT c.user2_id FROM connections c
+            WHERE c.user1_id IN (:userIds) AND c.status = :status
+            UNION
+            SELECT c.user1_id FROM connections c
+            WHERE c.user2_id IN (:userIds) AND c.status = :status
+        """, nativeQuery = true)
+    List<UUID> findConnectedUserIdsByUserIds(
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("status") String status
+    );
+
 }
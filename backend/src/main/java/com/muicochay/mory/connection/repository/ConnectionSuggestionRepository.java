@@ -0,0 +1,48 @@
+package com.muicochay.mory.connection.repository;
+
+import com.muicochay.mory.connection.entity.ConnectionSuggestion;
+import com.muicochay.mory.connection.entity.ConnectionSuggestionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ConnectionSuggestionRepository extends JpaRepository<ConnectionSuggestion, ConnectionSuggestionId> {
+
+    /**
+     * Pages the precomputed suggestions of a user by (mutual count, id) descending. The cursor carries the
+     * mutual count and id of the last row returned, so it stays valid when the worker replaces the rows;
+     * candidates connected or requested since the last refresh are skipped.
+     */
+    @Query(value = """
+        SELECT s.*
+        FROM connection_suggestions s
+        WHERE s.user_id = :userId
+          AND (
+            CAST(:cursorId AS uuid) IS NULL
+            OR (s.mutual_count, s.suggested_user_id) < (CAST(:cursorMutualCount AS integer), CAST(:cursorId AS uuid))
+          )
+          AND NOT EXISTS (
+              SELECT 1 FROM connections c
+              WHERE ((c.user1_id = :userId AND c.user2_id = s.suggested_user_id)
+                  OR (c.user2_id = :userId AND c.user1_id = s.suggested_user_id))
+                AND c.status <> 'INACTIVE'
+          )
+          AND NOT EXISTS (
+              SELECT 1 FROM connection_requests cr
+              WHERE ((cr.requester_id = :userId AND cr.recipient_id = s.suggested_user_id)
+                  OR (cr.recipient_id = :userId AND cr.requester_id = s.suggested_user_id))
+                AND cr.status = 'PENDING'
+          )
+        ORDER BY s.mutual_count DESC, s.suggested_user_id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<ConnectionSuggestion> findSuggestionsKeyset(
+            @Param("userId") UUID userId,
+            @Param("cursorMutualCount") Integer cursorMutualCount,
+            @Param("cursorId") UUID cursorId,
+            @Param("limit") int limit
+    );
+}
@@ -1,11 +1,14 @@
 package com.muicochay.mory.connection.service;
 
+import com.muicochay.mory.connection.cache.AccessDecisionCache;
 import com.muicochay.mory.connection.dto.*;
 import com.muicochay.mory.connection.entity.Connection;
 import com.muicochay.mory.connection.entity.ConnectionRequest;
+import com.muicochay.mory.connection.entity.ConnectionSuggestion;
 import com.muicochay.mory.connection.enums.ConnectionStatus;
 import com.muicochay.mory.connection.enums.ConnectionType;
 import com.muicochay.mory.connection.enums.RequestStatus;
+import com.muicochay.mory.connection.event.ConnectionChangedEvent;
 import com.muicochay.mory.connection.mapper.ConnectionMapper;
 import com.muicochay.mory.connection.mapper.ConnectionRequestMapper;
 import com.muicochay.mory.connection.repository.ConnectionRepository;
@@ -27,6 +30,7 @@ import com.muicochay.mory.user.mapper.UserMapper;
 import com.muicochay.mory.user.repositoriy.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -47,9 +51,13 @@ public class ConnectionService {
     private final UserMapper userMapper;
     private final ConnectionRequestMapper connectionRequestMapper;
     private final ConnectionMapper connectionMapper;
+    private final MutualConnectionService mutualConnectionService;
+    private final AccessDecisionCache accessDecisionCache;
+    private final ConnectionSuggestionService connectionSuggestionService;
     private final ConversationService conversationService;
 
     private final InviteRedisService inviteRedisService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public InviteLinkResponse getOrCreateInviteLink(UUID requesterId) {
@@ -83,8 +91,8 @@ public class ConnectionService {
             );
         }
         User recipient;
-        List<User> mutualConnections = userRepository.findMutualUsersByStatus(senderId, request.getRecipientId(), ConnectionStatus.CONNECTED);
-        boolean hasMutualConnection = !mutualConnections.isEmpty();
+        MutualConnections mutualConnections = mutualConnectionService.between(senderId, request.getRecipientId());
+        boolean hasMutualConnection = mutualConnections.count() > 0;
 
         if (hasMutualConnection) {
             recipient = userRepository.findWithProfileById(request.getRecipientId())
@@ -193,10 +201,9 @@ public class ConnectionService {
 
         connectionRequest.setStatus(RequestStatus.ACCEPTED);
         connectionRequestRepository.save(connectionRequest);
-        List<User> mutualConnections = userRepository.findMutualUsersByStatus(
+        MutualConnections mutualConnections = mutualConnectionService.between(
                 connectionRequest.getRequester().getId(),
-                connectionRequest.getRecipient().getId(),
-                ConnectionStatus.CONNECTED
+                connectionRequest.getRecipient().getId()
         );
 
         connectionRepository.save(connection);
@@ -206,6 +213,8 @@ public class ConnectionService {
                 connection.getUser2().getId(),
                 ConversationStatus.ACTIVE
         );
+        eventPublisher.publishEvent(new ConnectionChangedEvent(
+                connection.getUser1().getId(), connection.getUser2().getId()));
 
         return buildConnectionResponse(connection, mutualConnections);
     }
@@ -262,7 +271,7 @@ public class ConnectionService {
                     .status(RequestStatus.PENDING)
                     .build();
             connectionRequestRepository.save(changeTypRequest);
-            List<User> mutualConnections = userRepository.findMutualUsersByStatus(requester.getId(), recipient.getId(), ConnectionStatus.CONNECTED);
+            MutualConnections mutualConnections = mutualConnectionService.between(requester.getId(), recipient.getId());
 
             return buildConnectionRequestResponse(changeTypRequest, mutualConnections);
         }
@@ -270,7 +279,8 @@ public class ConnectionService {
         checkConnectionLimit(requesterId, request.getRecipientId(), request.getNewType());
         connection.setConnectionType(newType);
         connectionRepository.save(connection);
-        return buildConnectionResponse(connection, List.of());
+        eventPublisher.publishEvent(new ConnectionChangedEvent(requesterId, request.getRecipientId()));
+        return buildConnectionResponse(connection, MutualConnections.NONE);
     }
 
     @Transactional
@@ -297,8 +307,10 @@ public class ConnectionService {
         connection.setConnectionType(newType);
         changeTypeRequest.setStatus(RequestStatus.ACCEPTED);
         connectionRequestRepository.save(changeTypeRequest);
+        eventPublisher.publishEvent(new ConnectionChangedEvent(
+                changeTypeRequest.getRequester().getId(), changeTypeRequest.getRecipient().getId()));
 
-        return buildConnectionResponse(connection, List.of());
+        return buildConnectionResponse(connection, MutualConnections.NONE);
     }
 
     @Transactional
@@ -360,6 +372,7 @@ public class ConnectionService {
         );
 
         connectionRepository.save(connection);
+        eventPublisher.publishEvent(new ConnectionChangedEvent(requesterId, targetUserId));
     }
 
     @Transactional
@@ -378,6 +391,7 @@ public class ConnectionService {
         );
 
         connection.setStatus(ConnectionStatus.INACTIVE);
+        eventPublisher.publishEvent(new ConnectionChangedEvent(requesterId, targetUserId));
     }
 
     @Transactional
@@ -407,6 +421,7 @@ public class ConnectionService {
                 connection.getUser2().getId(),
                 ConversationStatus.INACTIVE
         );
+        eventPublisher.publishEvent(new ConnectionChangedEvent(requesterId, targetUserId));
     }
 
 
@@ -420,14 +435,7 @@ public class ConnectionService {
                                                        ConnectionStatus status,
                                                        String order) {
         if (!requesterId.equals(userId)) {
-            UUID connectionId = ConnectionUtils.generateConnectionId(requesterId, userId);
-            boolean connected = connectionRepository.existsDirectOrMutualConnection(
-                    connectionId,
-                    requesterId,
-                    userId,
-                    ConnectionStatus.CONNECTED.name()
-            );
-            if (!connected) {
+            if (!accessDecisionCache.canViewProfile(requesterId, userId)) {
                 throw new ResourcesAccessDeniedEx("Connection not found or you do not have access");
             }
         }
@@ -462,19 +470,11 @@ public class ConnectionService {
                     .map(r -> r.getUser1().getId().equals(requesterId) ? r.getUser2().getId() : r.getUser1().getId())
                     .filter(id -> !id.equals(requesterId))
                     .toList();
-            List<Object[]> rawMutualConnections = userRepository.findMutualConnectionsBatch(
-                    requesterId, otherUserIds, ConnectionStatus.CONNECTED
-            );
-            Map<UUID, List<User>> mutualMap = rawMutualConnections.stream()
-                    .collect(Collectors.groupingBy(
-                            row -> (UUID) row[2],
-                            Collectors.mapping(row -> (User) row[0], Collectors.toList())
-                    ));
+            Map<UUID, MutualConnections> mutualMap = mutualConnectionService.forTargets(requesterId, otherUserIds);
             responses = connections.stream()
                     .map(c -> {
                         UUID otherId = c.getUser1().getId().equals(userId) ? c.getUser2().getId() : c.getUser1().getId();
-                        List<User> mutualConnections = mutualMap.getOrDefault(otherId, List.of());
-                        return buildConnectionResponse(c, mutualConnections.stream().filter(u -> !u.getId().equals(otherId)).toList());
+                        return buildConnectionResponse(c, mutualMap.getOrDefault(otherId, MutualConnections.NONE));
                     })
                     .toList();
 
@@ -483,14 +483,7 @@ public class ConnectionService {
                     .map(r -> r.getUser1().getId().equals(userId) ? r.getUser2().getId() : r.getUser1().getId())
                     .toList();
 
-            List<Object[]> rawMutualConnections = userRepository.findMutualConnectionsBatch(
-                    requesterId, otherUserIds, ConnectionStatus.CONNECTED
-            );
-            Map<UUID, List<User>> mutualMap = rawMutualConnections.stream()
-                    .collect(Collectors.groupingBy(
-                            row -> (UUID) row[2],
-                            Collectors.mapping(row -> (User) row[0], Collectors.toList())
-                    ));
+            Map<UUID, MutualConnections> mutualMap = mutualConnectionService.forTargets(requesterId, otherUserIds);
 
             List<UUID> requesterConnectionIds = otherUserIds.stream()
                     .filter(id -> !id.equals(requesterId) && !id.equals(userId))
@@ -514,7 +507,7 @@ public class ConnectionService {
                     .map(c -> {
                         UUID otherId = c.getUser1().getId().equals(userId) ? c.getUser2().getId() : c.getUser1().getId();
                         Connection connectionWithRequester = requesterConnectionMap.get(otherId);
-                        List<User> mutualConnections = mutualMap.getOrDefault(otherId, List.of());
+                        MutualConnections mutualConnections = mutualMap.getOrDefault(otherId, MutualConnections.NONE);
                         if (connectionWithRequester != null) {
                             return ConnectionResponse.builder()
                                     .id(connectionWithRequester.getId())
@@ -522,14 +515,16 @@ public class ConnectionService {
                                     .connectionType(connectionWithRequester.getConnectionType())
                                     .user1(userMapper.toProfilePreview(connectionWithRequester.getUser1()))
                                     .user2(userMapper.toProfilePreview(connectionWithRequester.getUser2()))
-                                    .mutualConnections(userMapper.toProfilePreviewList(mutualConnections.stream().filter(u -> !u.getId().equals(otherId)).toList()))
+                                    .mutualCount(mutualConnections.count())
+                                    .mutualConnections(mutualConnections.preview())
                                     .build();
                         }
                         User otherUser = c.getUser1().getId().equals(userId) ? c.getUser2() : c.getUser1();
                         return ConnectionResponse.builder()
                                 .id(c.getId())
                                 .user1(userMapper.toProfilePreview(otherUser))
-                                .mutualConnections(userMapper.toProfilePreviewList(mutualConnections))
+                                .mutualCount(mutualConnections.count())
+                                .mutualConnections(mutualConnections.preview())
                                 .build();
                     })
                     .toList();
@@ -577,21 +572,12 @@ public class ConnectionService {
                 .map(req -> req.getRecipient().getId())
                 .toList();
 
-        List<Object[]> rawMutualConnections = userRepository.findMutualConnectionsBatch(
-                requesterId, recipientIds, ConnectionStatus.CONNECTED
-        );
-
-        Map<UUID, List<User>> mutualMap = rawMutualConnections.stream()
-                .collect(Collectors.groupingBy(
-                        row -> (UUID) row[2],
-                        Collectors.mapping(row -> (User) row[0], Collectors.toList())
-                ));
+        Map<UUID, MutualConnections> mutualMap = mutualConnectionService.forTargets(requesterId, recipientIds);
 
         List<ConnectionRequestResponse> responses = connectionRequests.stream()
                 .map(req -> {
                     UUID recipientId = req.getRecipient().getId();
-                    List<User> mutualConnections = mutualMap.getOrDefault(recipientId, List.of());
-                    return buildConnectionRequestResponse(req, mutualConnections.stream().toList());
+                    return buildConnectionRequestResponse(req, mutualMap.getOrDefault(recipientId, MutualConnections.NONE));
                 })
                 .toList();
 
@@ -639,24 +625,14 @@ public class ConnectionService {
                 .map(req -> req.getRequester().getId())
                 .toList();
 
-        List<Object[]> rawMutualConnections = userRepository.findMutualConnectionsBatch(
-                recipientId, requesterIds, ConnectionStatus.CONNECTED
-        );
-
-        Map<UUID, List<User>> mutualMap = rawMutualConnections.stream()
-                .collect(Collectors.groupingBy(
-                        row -> (UUID) row[2],
-                        Collectors.mapping(row -> (User) row[0], Collectors.toList())
-                ));
+        Map<UUID, MutualConnections> mutualMap = mutualConnectionService.forTargets(recipientId, requesterIds);
 
         List<ConnectionRequestResponse> responses = connectionRequests.stream()
                 .map(req -> {
                     UUID requesterId = req.getRequester().getId();
-                    List<User> mutualConnections =
-                            mutualMap.getOrDefault(requesterId, List.of());
                     return buildConnectionRequestResponse(
                             req,
-                            mutualConnections.stream().limit(50).toList()
+                            mutualMap.getOrDefault(requesterId, MutualConnections.NONE)
                     );
                 })
                 .toList();
@@ -672,10 +648,25 @@ public class ConnectionService {
     }
 
     @Transactional(readOnly = true)
-    public SuggestedConnectionsPageResponse getSuggestedConnections(UUID userId, Instant cursorCreatedAt, UUID cursorId, int size) {
-        List<UUID> suggestedIds = userRepository.findSuggestedConnectionIdsKeyset(
-                userId, cursorCreatedAt, cursorId, size + 1
-        );
+    public SuggestedConnectionsPageResponse getSuggestedConnections(
+            UUID userId,
+            Integer cursorMutualCount,
+            UUID cursorId,
+            int size
+    ) {
+        if ((cursorMutualCount == null) != (cursorId == null)) {
+            throw new InvalidArgumentEx("cursorMutualCount and cursorId must be provided together");
+        }
+        List<ConnectionSuggestion> suggestionRows = connectionSuggestionService.findSuggestions(
+                userId, cursorMutualCount, cursorId, size + 1);
+
+        boolean hasNext = suggestionRows.size() > size;
+        if (hasNext) suggestionRows = suggestionRows.subList(0, size);
+        ConnectionSuggestion last = hasNext ? suggestionRows.getLast() : null;
+
+        List<UUID> suggestedIds = suggestionRows.stream()
+                .map(ConnectionSuggestion::getSuggestedUserId)
+                .toList();
 
         List<User> unOrderedUsers = userRepository.findAllWithProfileByIds(suggestedIds);
 
@@ -687,34 +678,19 @@ public class ConnectionService {
                 .filter(Objects::nonNull)
                 .toList();
 
-        boolean hasNext = suggestions.size() > size;
-        if (hasNext) suggestions = suggestions.subList(0, size);
-        Instant nextCursorCreatedAt = hasNext ? suggestions.getLast().getCreatedAt() : null;
-        UUID nextCursorId = hasNext ? suggestions.getLast().getId() : null;
-
 
-        List<Object[]> rawMutualConnections = userRepository.findMutualConnectionsBatch(
-                userId,
-                suggestedIds,
-                ConnectionStatus.CONNECTED
-        );
-
-        Map<UUID, List<User>> mutualMap = rawMutualConnections.stream()
-                .collect(Collectors.groupingBy(
-                        row -> (UUID) row[2],
-                        Collectors.mapping(row -> (User) row[0], Collectors.toList())
-                ));
+        Map<UUID, MutualConnections> mutualMap = mutualConnectionService.forTargets(
+                userId, suggestions.stream().map(User::getId).toList());
 
 
         List<UserPreviewWithMutualConnectionResponse> suggestionResponses = suggestions.stream()
                 .map(suggestedUser -> {
-                    List<User> mutualConnections =
-                            mutualMap.getOrDefault(suggestedUser.getId(), List.of());
+                    MutualConnections mutualConnections =
+                            mutualMap.getOrDefault(suggestedUser.getId(), MutualConnections.NONE);
                     return UserPreviewWithMutualConnectionResponse.builder()
                             .user(userMapper.toProfilePreview(suggestedUser))
-                            .mutualConnections(userMapper.toProfilePreviewList(
-                                    mutualConnections
-                            ))
+                            .mutualCount(mutualConnections.count())
+                            .mutualConnections(mutualConnections.preview())
                             .build();
                 })
                 .toList();
@@ -722,8 +698,8 @@ public class ConnectionService {
         return SuggestedConnectionsPageResponse.builder()
                 .suggestions(suggestionResponses)
                 .hasNext(hasNext)
-                .nextCursorCreatedAt(nextCursorCreatedAt)
-                .nextCursorId(nextCursorId)
+                .nextCursorMutualCount(last != null ? last.getMutualCount() : null)
+                .nextCursorId(last != null ? last.getSuggestedUserId() : null)
                 .build();
     }
 
@@ -745,17 +721,7 @@ public class ConnectionService {
 
         List<Connection> connections = connectionRepository.findAllWithUsers(connectionIds);
 
-        // Lấy batch mutual connections: [User, OtherUser, MutualUser]
-        List<Object[]> rawMutualConnections = userRepository.findMutualConnectionsBatch(
-                requesterId, targetUserIds, ConnectionStatus.CONNECTED
-        );
-
-        // Map theo userId được mutual connections
-        Map<UUID, List<User>> mutualMap = rawMutualConnections.stream()
-                .collect(Collectors.groupingBy(
-                        row -> (UUID) row[2],
-                        Collectors.mapping(row -> (User) row[0], Collectors.toList())
-                ));
+        Map<UUID, MutualConnections> mutualMap = mutualConnectionService.forTargets(requesterId, targetUserIds);
 
         Map<UUID, Connection> connectionMap = connections.stream()
                 .collect(Collectors.toMap(Connection::getId, c -> c));
@@ -765,12 +731,13 @@ public class ConnectionService {
                     UUID connectionId = ConnectionUtils.generateConnectionId(requesterId, otherUserId);
                     Connection c = connectionMap.get(connectionId);
 
-                    List<User> mutualConnections = mutualMap.getOrDefault(otherUserId, List.of());
+                    MutualConnections mutualConnections = mutualMap.getOrDefault(otherUserId, MutualConnections.NONE);
                     return ConnectionTypeStatusDto.builder()
                             .userId(otherUserId)
                             .connectionType(c != null ? c.getConnectionType() : null)
                             .status(c != null ? c.getStatus() : null)
-                            .mutualConnections(userMapper.toProfilePreviewList(mutualConnections.stream().filter(u -> !u.getId().equals(otherUserId)).toList()))
+                            .mutualCount(mutualConnections.count())
+                            .mutualConnections(mutualConnections.preview())
                             .build();
                 })
                 .toList();
@@ -798,15 +765,17 @@ public class ConnectionService {
         }
     }
 
-    private ConnectionResponse buildConnectionResponse(Connection connection, List<User> mutualConnections) {
+    private ConnectionResponse buildConnectionResponse(Connection connection, MutualConnections mutualConnections) {
         ConnectionResponse response = connectionMapper.toResponse(connection);
-        response.setMutualConnections(userMapper.toProfilePreviewList(mutualConnections));
+        response.setMutualCount(mutualConnections.count());
+        response.setMutualConnections(mutualConnections.preview());
         return response;
     }
 
-    private ConnectionRequestResponse buildConnectionRequestResponse(ConnectionRequest request, List<User> mutualConnections) {
+    private ConnectionRequestResponse buildConnectionRequestResponse(ConnectionRequest request, MutualConnections mutualConnections) {
         ConnectionRequestResponse response = connectionRequestMapper.toResponse(request);
-        response.setMutualConnections(userMapper.toProfilePreviewList(mutualConnections));
+        response.setMutualCount(mutualConnections.count());
+        response.setMutualConnections(mutualConnections.preview());
         return response;
     }
 }
@@ -0,0 +1,52 @@
+package com.muicochay.mory.connection.service;
+
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
+import com.muicochay.mory.connection.entity.ConnectionSuggestion;
+import com.muicochay.mory.connection.event.ConnectionChangedEvent;
+import com.muicochay.mory.connection.repository.ConnectionSuggestionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Reads the friend-of-friend suggestions precomputed by the worker into {@code connection_suggestions}.
+ *
+ * <p>A connection change alters the mutual counts seen by both users and by every connection of either,
+ * so all of them are queued in {@link #DIRTY_SET_KEY} for the worker to recompute.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConnectionSuggestionService {
+
+    private static final String DIRTY_SET_KEY = "connection::suggestions:dirty";
+
+    private final ConnectionSuggestionRepository connectionSuggestionRepository;
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
+    private final StringRedisTemplate redisTemplate;
+
+    public List<ConnectionSuggestion> findSuggestions(UUID userId, Integer cursorMutualCount, UUID cursorId, int limit) {
+        return connectionSuggestionRepository.findSuggestionsKeyset(userId, cursorMutualCount, cursorId, limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        try {
+            Set<UUID> affected = new HashSet<>();
+            affected.add(event.userA());
+            affected.add(event.userB());
+            connectionAdjacencyCache.connectionsOf(List.of(event.userA(), event.userB()))
+                    .values()
+                    .forEach(adjacency -> affected.addAll(adjacency.keySet()));
+
+            redisTemplate.opsForSet().add(DIRTY_SET_KEY, affected.stream().map(UUID::toString).toArray(String[]::new));
+        } catch (Exception e) {
+            log.warn("Failed to queue suggestion refresh for {} and {}", event.userA(), event.userB(), e);
+        }
+    }
+}
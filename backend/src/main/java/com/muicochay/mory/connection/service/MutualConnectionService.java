@@ -0,0 +1,96 @@
+package com.muicochay.mory.connection.service;
+
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
+import com.muicochay.mory.connection.dto.MutualConnections;
+import com.muicochay.mory.connection.enums.ConnectionType;
+import com.muicochay.mory.user.cache.UserPreviewCache;
+import com.muicochay.mory.user.dto.UserPreviewResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Mutual connections computed as intersections of the adjacency sets held by {@link ConnectionAdjacencyCache}.
+ *
+ * <p>The adjacency of the user and of every target is read in a single pipeline and each intersection walks
+ * the smaller set, so the cost is bounded by the smaller degree. Only the first {@link #PREVIEW_SIZE} mutuals
+ * of each target are resolved to previews, closest to the user first (highest {@link ConnectionType} level,
+ * then id), all through one {@link UserPreviewCache} lookup; the count always covers every mutual.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class MutualConnectionService {
+
+    public static final int PREVIEW_SIZE = 5;
+
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
+    private final UserPreviewCache userPreviewCache;
+
+    /**
+     * Returns the mutual connections between two users.
+     */
+    public MutualConnections between(UUID userId, UUID otherId) {
+        return forTargets(userId, List.of(otherId)).getOrDefault(otherId, MutualConnections.NONE);
+    }
+
+    /**
+     * Returns the mutual connections between the user and each target; every target is present in the result.
+     */
+    public Map<UUID, MutualConnections> forTargets(UUID userId, Collection<UUID> targetIds) {
+        Set<UUID> targets = new LinkedHashSet<>(targetIds);
+        targets.remove(userId);
+        Map<UUID, MutualConnections> result = new HashMap<>(targets.size());
+        if (targets.isEmpty()) {
+            return result;
+        }
+
+        List<UUID> userIds = new ArrayList<>(targets.size() + 1);
+        userIds.add(userId);
+        userIds.addAll(targets);
+        Map<UUID, Map<UUID, ConnectionType>> adjacencies = connectionAdjacencyCache.connectionsOf(userIds);
+        Map<UUID, ConnectionType> own = adjacencies.getOrDefault(userId, Map.of());
+
+        Comparator<UUID> closestFirst = Comparator
+                .comparing((UUID id) -> own.get(id).getLevel(), Comparator.reverseOrder())
+                .thenComparing(Comparator.naturalOrder());
+
+        Map<UUID, Integer> counts = new HashMap<>(targets.size());
+        Map<UUID, List<UUID>> previewIds = new HashMap<>(targets.size());
+        Set<UUID> allPreviewIds = new HashSet<>();
+        for (UUID targetId : targets) {
+            List<UUID> mutuals = intersect(own, adjacencies.getOrDefault(targetId, Map.of()), userId, targetId);
+            List<UUID> top = mutuals.stream().sorted(closestFirst).limit(PREVIEW_SIZE).toList();
+            counts.put(targetId, mutuals.size());
+            previewIds.put(targetId, top);
+            allPreviewIds.addAll(top);
+        }
+
+        Map<UUID, UserPreviewResponse> previews = userPreviewCache.getAll(allPreviewIds);
+        for (UUID targetId : targets) {
+            int count = counts.get(targetId);
+            if (count == 0) {
+                result.put(targetId, MutualConnections.NONE);
+                continue;
+            }
+            List<UserPreviewResponse> preview = previewIds.get(targetId).stream()
+                    .map(previews::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            result.put(targetId, new MutualConnections(count, preview));
+        }
+        return result;
+    }
+
+    private List<UUID> intersect(Map<UUID, ConnectionType> a, Map<UUID, ConnectionType> b, UUID userId, UUID targetId) {
+        Map<UUID, ConnectionType> smaller = a.size() <= b.size() ? a : b;
+        Map<UUID, ConnectionType> larger = smaller == a ? b : a;
+        List<UUID> mutuals = new ArrayList<>();
+        for (UUID peerId : smaller.keySet()) {
+            if (larger.containsKey(peerId) && !peerId.equals(userId) && !peerId.equals(targetId)) {
+                mutuals.add(peerId);
+            }
+        }
+        return mutuals;
+    }
+}
@@ -0,0 +1,107 @@
+package com.muicochay.mory.conversation.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muicochay.mory.conversation.config.ChatProperties;
+import com.muicochay.mory.conversation.dto.ConversationMembership;
+import com.muicochay.mory.conversation.entity.ConversationMember;
+import com.muicochay.mory.conversation.event.ConversationMembersChangedEvent;
+import com.muicochay.mory.conversation.repository.ConversationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Per-node cache of conversation members, read on every chat subscription and message.
+ *
+ * <p>When {@code ConversationService} changes a conversation, its id is published on
+ * {@link #INVALIDATION_CHANNEL} after commit and every node, including the publisher, evicts it. Evicting
+ * only after commit keeps a concurrent read from caching the pre-change members; {@code chat.membership-ttl}
+ * bounds staleness if a message is lost.</p>
+ */
+@Slf4j
+@Component
+public class ConversationMembershipCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "conversation-membership::invalidate";
+    private static final String CACHE_NAME = "conversationMemberships";
+
+    private final Cache<UUID, Optional<ConversationMembership>> cache;
+    private final ConversationRepository conversationRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public ConversationMembershipCache(
+            ChatProperties properties,
+            ConversationRepository conversationRepository,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            MeterRegistry meterRegistry
+    ) {
+        this.conversationRepository = conversationRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(properties.getMembershipTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * @return the membership of the conversation, or {@code null} if it does not exist
+     */
+    public ConversationMembership get(UUID conversationId) {
+        return cache.get(conversationId, this::load).orElse(null);
+    }
+
+    public boolean isMember(UUID conversationId, UUID userId) {
+        ConversationMembership membership = get(conversationId);
+        return membership != null && membership.isMember(userId);
+    }
+
+    public void evictLocal(UUID conversationId) {
+        cache.invalidate(conversationId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMembersChanged(ConversationMembersChangedEvent event) {
+        evictLocal(event.conversationId());
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, event.conversationId().toString());
+        } catch (Exception e) {
+            log.error("Failed to publish membership invalidation for conversation {}", event.conversationId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            evictLocal(UUID.fromString(body));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed membership invalidation '{}'", body);
+        }
+    }
+
+    private Optional<ConversationMembership> load(UUID conversationId) {
+        return conversationRepository.findByIdWithMembers(conversationId)
+                .map(c -> new ConversationMembership(
+                        c.getStatus(),
+                        c.getMembers().stream().map(ConversationMember::getUserId).collect(Collectors.toUnmodifiableSet())
+                ));
+    }
+}
@@ -0,0 +1,60 @@
+package com.muicochay.mory.conversation.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Binds the settings of real-time chat.
+ *
+ * <pre>{@code
+ * chat:
+ *   persistence:
+ *     batch-size: 500
+ *     linger: 50ms
+ *     queue-capacity: 10000
+ *     max-attempts: 3
+ *   membership-ttl: 30s
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "chat")
+@Getter
+@Setter
+public class ChatProperties {
+
+    private Persistence persistence = new Persistence();
+
+    /**
+     * Upper bound on how long a node may use a stale member list after a missed eviction.
+     */
+    private Duration membershipTtl = Duration.ofSeconds(30);
+
+    @Getter
+    @Setter
+    public static class Persistence {
+
+        /**
+         * Maximum number of messages written in one {@code insertMany}.
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the writer waits for more messages after the first one of a batch.
+         */
+        private Duration linger = Duration.ofMillis(50);
+
+        /**
+         * Maximum number of messages waiting to be written before new ones are rejected.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Number of times a batch is written before its messages are parked in Redis for a later replay.
+         */
+        private int maxAttempts = 3;
+    }
+}
@@ -0,0 +1,42 @@
+package com.muicochay.mory.conversation.config;
+
+import com.muicochay.mory.auth.config.JwtTokenHelper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Keeps the access token sent with the WebSocket handshake (cookie or {@code Authorization} header), so
+ * browser clients can authenticate the STOMP {@code CONNECT} frame without repeating it.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String ACCESS_TOKEN_ATTRIBUTE = "accessToken";
+
+    private final JwtTokenHelper jwtTokenHelper;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            String token = jwtTokenHelper.getToken(servletRequest.getServletRequest());
+            if (token != null) {
+                attributes.put(ACCESS_TOKEN_ATTRIBUTE, token);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.muicochay.mory.conversation.config;
+
+import com.muicochay.mory.auth.config.JwtTokenHelper;
+import com.muicochay.mory.auth.enums.TokenType;
+import com.muicochay.mory.auth.helper.AuthHelper;
+import com.muicochay.mory.auth.model.AuthUserPrincipal;
+import com.muicochay.mory.auth.model.JwtClaims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Authenticates STOMP sessions with the access token and authorizes their frames.
+ *
+ * <p>{@code CONNECT} takes the token from the {@code Authorization} native header, or from the handshake
+ * (see {@link JwtHandshakeInterceptor}), and requires a verified user. Later frames are rejected once the
+ * token has expired, so clients reconnect with a refreshed one. {@code SEND} is limited to application
+ * destinations and subscriptions to the user's own queues; chat messages are delivered per member by
+ * {@code ChatMessageRelay}, so there is no shared topic a removed member could stay subscribed to.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String CLAIMS_ATTRIBUTE = "jwtClaims";
+    private static final String APP_PREFIX = "/app/";
+    private static final String USER_QUEUE_PREFIX = "/user/queue/";
+
+    private final JwtTokenHelper jwtTokenHelper;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT -> connect(accessor);
+            case SUBSCRIBE -> subscribe(accessor);
+            case SEND -> send(accessor);
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private void connect(StompHeaderAccessor accessor) {
+        Map<String, Object> session = accessor.getSessionAttributes();
+        String token = bearerToken(accessor.getFirstNativeHeader("Authorization"));
+        if (token == null && session != null) {
+            token = (String) session.get(JwtHandshakeInterceptor.ACCESS_TOKEN_ATTRIBUTE);
+        }
+        JwtClaims claims = token != null ? jwtTokenHelper.verify(token) : null;
+        if (claims == null || claims.tokenType() != TokenType.ACCESS || !claims.verified()) {
+            throw new AccessDeniedException("Invalid access token");
+        }
+
+        AuthUserPrincipal principal = AuthUserPrincipal.builder()
+                .id(claims.userId())
+                .verified(claims.verified())
+                .authorities(AuthHelper.getAuthorities(claims.roleCode()))
+                .currentProvider(claims.provider())
+                .build();
+        accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        if (session != null) {
+            session.remove(JwtHandshakeInterceptor.ACCESS_TOKEN_ATTRIBUTE);
+            session.put(CLAIMS_ATTRIBUTE, claims);
+        }
+    }
+
+    private void send(StompHeaderAccessor accessor) {
+        authenticated(accessor);
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(APP_PREFIX)) {
+            throw new AccessDeniedException("You are not allowed to send to " + destination);
+        }
+    }
+
+    private void subscribe(StompHeaderAccessor accessor) {
+        authenticated(accessor);
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(USER_QUEUE_PREFIX)) {
+            throw new AccessDeniedException("You are not allowed to subscribe to " + destination);
+        }
+    }
+
+    private UUID authenticated(StompHeaderAccessor accessor) {
+        Principal user = accessor.getUser();
+        Map<String, Object> session = accessor.getSessionAttributes();
+        JwtClaims claims = session != null ? (JwtClaims) session.get(CLAIMS_ATTRIBUTE) : null;
+        if (!(user instanceof UsernamePasswordAuthenticationToken authentication)
+                || !(authentication.getPrincipal() instanceof AuthUserPrincipal principal)
+                || claims == null) {
+            throw new AccessDeniedException("Not authenticated");
+        }
+        if (claims.isExpired(Instant.now())) {
+            throw new AccessDeniedException("Access token expired");
+        }
+        return principal.getId();
+    }
+
+    private String bearerToken(String header) {
+        return header != null && header.startsWith("Bearer ") ? header.substring(7) : null;
+    }
+}
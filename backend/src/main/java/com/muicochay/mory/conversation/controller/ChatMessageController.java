@@ -0,0 +1,40 @@
+package com.muicochay.mory.conversation.controller;
+
+import com.muicochay.mory.auth.model.AuthUserPrincipal;
+import com.muicochay.mory.conversation.dto.SendChatMessageRequest;
+import com.muicochay.mory.conversation.service.ChatMessageService;
+import com.muicochay.mory.shared.dto.ApiResponse;
+import com.muicochay.mory.shared.exception.BaseException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.UUID;
+
+@Controller
+@RequiredArgsConstructor
+public class ChatMessageController {
+    private final ChatMessageService chatMessageService;
+
+    @MessageMapping("/conversations/{conversationId}/send")
+    public void sendMessage(
+            Principal principal,
+            @DestinationVariable UUID conversationId,
+            @Payload SendChatMessageRequest request
+    ) {
+        AuthUserPrincipal user = (AuthUserPrincipal) ((Authentication) principal).getPrincipal();
+        chatMessageService.send(user.getId(), conversationId, request);
+    }
+
+    @MessageExceptionHandler(BaseException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public ApiResponse<Object> handleBaseEx(BaseException ex) {
+        return ApiResponse.fail(ex.getMessage());
+    }
+}
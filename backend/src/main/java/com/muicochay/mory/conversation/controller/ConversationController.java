@@ -1,18 +1,27 @@
 package com.muicochay.mory.conversation.controller;
 
 import com.muicochay.mory.auth.model.AuthUserPrincipal;
+import com.muicochay.mory.conversation.dto.ChatMessagePageResponse;
 import com.muicochay.mory.conversation.dto.ConversationPageResponse;
+import com.muicochay.mory.conversation.dto.MarkConversationReadRequest;
+import com.muicochay.mory.conversation.service.ChatHistoryService;
+import com.muicochay.mory.conversation.service.ConversationReadStateService;
 import com.muicochay.mory.conversation.service.ConversationService;
 import com.muicochay.mory.shared.dto.ApiResponse;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -20,6 +29,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ConversationController {
     private final ConversationService conversationService;
+    private final ConversationReadStateService conversationReadStateService;
+    private final ChatHistoryService chatHistoryService;
 
     @GetMapping()
     public ResponseEntity<ApiResponse<ConversationPageResponse>> getUserConversation(
@@ -38,4 +49,55 @@ public class ConversationController {
         );
         return ResponseEntity.ok(ApiResponse.success(response, "Fetch user conversations successfully"));
     }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<ApiResponse<Long>> getTotalUnread(
+            @AuthenticationPrincipal AuthUserPrincipal principal
+    ) {
+        long total = conversationReadStateService.getTotalUnread(principal.getId());
+        return ResponseEntity.ok(ApiResponse.success(total, "Fetch unread count successfully"));
+    }
+
+    @PostMapping("/{conversationId}/read")
+    public ResponseEntity<ApiResponse<Void>> markAsRead(
+            @AuthenticationPrincipal AuthUserPrincipal principal,
+            @PathVariable UUID conversationId,
+            @RequestBody(required = false) MarkConversationReadRequest request
+    ) {
+        conversationReadStateService.markAsRead(
+                conversationId,
+                principal.getId(),
+                request != null ? request.getLastReadMessageId() : null
+        );
+        return ResponseEntity.ok(ApiResponse.success(null, "Conversation marked as read"));
+    }
+
+    @GetMapping("/{conversationId}/messages")
+    public ResponseEntity<ApiResponse<ChatMessagePageResponse>> getMessages(
+            @AuthenticationPrincipal AuthUserPrincipal principal,
+            @PathVariable UUID conversationId,
+            @RequestParam(name = "cursorCreatedAt", required = false) Instant cursorCreatedAt,
+            @RequestParam(name = "cursorId", required = false) ObjectId cursorId,
+            @RequestParam(name = "direction", defaultValue = "BEFORE") String direction,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(name = "fields", required = false) List<String> fields
+    ) {
+        ChatMessagePageResponse response = "AFTER".equalsIgnoreCase(direction)
+                ? chatHistoryService.getMessagesAfter(principal.getId(), conversationId, cursorCreatedAt, cursorId, size, fields)
+                : chatHistoryService.getMessagesBefore(principal.getId(), conversationId, cursorCreatedAt, cursorId, size, fields);
+        return ResponseEntity.ok(ApiResponse.success(response, "Fetch messages successfully"));
+    }
+
+    @GetMapping("/{conversationId}/messages/around/{messageId}")
+    public ResponseEntity<ApiResponse<ChatMessagePageResponse>> getMessagesAround(
+            @AuthenticationPrincipal AuthUserPrincipal principal,
+            @PathVariable UUID conversationId,
+            @PathVariable String messageId,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(name = "fields", required = false) List<String> fields
+    ) {
+        ChatMessagePageResponse response = chatHistoryService.getMessagesAround(
+                principal.getId(), conversationId, messageId, size, fields);
+        return ResponseEntity.ok(ApiResponse.success(response, "Fetch messages successfully"));
+    }
 }
@@ -16,7 +16,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@CompoundIndex(name = "conversation_createdAt_idx", def = "{'conversationId': 1, 'createdAt': -1}")
+@CompoundIndex(name = "conversation_createdAt_id_idx", def = "{'conversationId': 1, 'createdAt': -1, '_id': -1}")
 public class ChatMessage {
     @Id
     private String id;
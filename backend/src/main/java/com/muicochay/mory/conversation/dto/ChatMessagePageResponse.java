@@ -0,0 +1,26 @@
+package com.muicochay.mory.conversation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A page of chat history, newest message first, with cursors to load older and newer messages.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatMessagePageResponse {
+    private List<ChatMessageResponse> messages;
+    private boolean hasOlder;
+    private Instant olderCursorCreatedAt;
+    private String olderCursorId;
+    private boolean hasNewer;
+    private Instant newerCursorCreatedAt;
+    private String newerCursorId;
+}
@@ -0,0 +1,16 @@
+package com.muicochay.mory.conversation.dto;
+
+import com.muicochay.mory.conversation.enums.ConversationStatus;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Status and member ids of a conversation, as needed to authorize and fan out chat messages.
+ */
+public record ConversationMembership(ConversationStatus status, Set<UUID> memberIds) {
+
+    public boolean isMember(UUID userId) {
+        return memberIds.contains(userId);
+    }
+}
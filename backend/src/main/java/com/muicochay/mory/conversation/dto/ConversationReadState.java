@@ -0,0 +1,9 @@
+package com.muicochay.mory.conversation.dto;
+
+import java.time.Instant;
+
+/**
+ * Read state of one conversation member, as buffered in Redis.
+ */
+public record ConversationReadState(String lastReadMessageId, Instant lastReadAt, int unreadCount) {
+}
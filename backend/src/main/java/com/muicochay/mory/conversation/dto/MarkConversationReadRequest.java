@@ -0,0 +1,14 @@
+package com.muicochay.mory.conversation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MarkConversationReadRequest {
+    private String lastReadMessageId;
+}
@@ -0,0 +1,18 @@
+package com.muicochay.mory.conversation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SendChatMessageRequest {
+    private String text;
+    private String replyToMessageId;
+    private UUID replyToMomentId;
+}
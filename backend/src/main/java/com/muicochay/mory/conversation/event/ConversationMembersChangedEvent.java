@@ -0,0 +1,9 @@
+package com.muicochay.mory.conversation.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a conversation is created, changes status, or gains or loses members.
+ */
+public record ConversationMembersChangedEvent(UUID conversationId) {
+}
@@ -0,0 +1,24 @@
+package com.muicochay.mory.conversation.repository;
+
+import com.muicochay.mory.conversation.document.ChatMessage;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ChatMessageCustomRepository {
+    List<ChatMessage> findHistoryKeyset(
+            UUID conversationId,
+            Instant cursorCreatedAt,
+            ObjectId cursorId,
+            boolean asc,
+            int limit,
+            Collection<String> fields);
+
+    boolean existsHistoryKeyset(UUID conversationId, Instant cursorCreatedAt, ObjectId cursorId, boolean asc);
+
+    Optional<ChatMessage> findInConversation(UUID conversationId, String messageId, Collection<String> fields);
+}
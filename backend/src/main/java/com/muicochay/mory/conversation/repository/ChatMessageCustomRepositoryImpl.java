@@ -0,0 +1,170 @@
+package com.muicochay.mory.conversation.repository;
+
+import com.muicochay.mory.conversation.document.ChatMessage;
+import com.muicochay.mory.shared.mongo.MongoIndexManifest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keyset reads of chat history on {@code (conversationId, createdAt, _id)}.
+ *
+ * <p>Queries are pinned to {@link MongoIndexManifest#MESSAGE_CONVERSATION_INDEX}, whose key order matches
+ * the sort in both directions, so the server walks the index without a blocking sort. At startup the
+ * plan of a history query is explained and a warning is logged if it contains a {@code SORT} stage or
+ * does not scan that index.</p>
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageCustomRepositoryImpl implements ChatMessageCustomRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean indexPresent;
+
+    @Override
+    public List<ChatMessage> findHistoryKeyset(
+            UUID conversationId,
+            Instant cursorCreatedAt,
+            ObjectId cursorId,
+            boolean asc,
+            int limit,
+            Collection<String> fields
+    ) {
+        Query query = historyQuery(conversationId, cursorCreatedAt, cursorId, asc, limit);
+        project(query, fields);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public boolean existsHistoryKeyset(UUID conversationId, Instant cursorCreatedAt, ObjectId cursorId, boolean asc) {
+        Query query = historyQuery(conversationId, cursorCreatedAt, cursorId, asc, 1);
+        query.fields().include("_id");
+        return mongoTemplate.findOne(query, ChatMessage.class) != null;
+    }
+
+    @Override
+    public Optional<ChatMessage> findInConversation(UUID conversationId, String messageId, Collection<String> fields) {
+        Query query = new Query(Criteria.where("_id").is(messageId).and("conversationId").is(conversationId));
+        project(query, fields);
+        return Optional.ofNullable(mongoTemplate.findOne(query, ChatMessage.class));
+    }
+
+    /**
+     * Restricts the query to the given fields plus the ones that form the cursors; no fields means all of them.
+     */
+    private void project(Query query, Collection<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            query.fields().include(fields.toArray(new String[0])).include("_id", "createdAt");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyHistoryPlan() {
+        indexPresent = mongoTemplate.indexOps(ChatMessage.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .anyMatch(MongoIndexManifest.MESSAGE_CONVERSATION_INDEX::equals);
+        if (!indexPresent) {
+            log.warn("Index {} is missing on messages, chat history runs without hint",
+                    MongoIndexManifest.MESSAGE_CONVERSATION_INDEX);
+            return;
+        }
+        try {
+            Query sample = historyQuery(new UUID(0, 0), Instant.now(), new ObjectId(), false, 30);
+            QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                    .getRequiredPersistentEntity(ChatMessage.class);
+            Document explain = mongoTemplate.getCollection(MongoIndexManifest.MESSAGES)
+                    .find(queryMapper.getMappedObject(sample.getQueryObject(), entity))
+                    .sort(queryMapper.getMappedSort(sample.getSortObject(), entity))
+                    .hintString(MongoIndexManifest.MESSAGE_CONVERSATION_INDEX)
+                    .limit(30)
+                    .explain();
+            Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+            if (hasStage(winningPlan, "SORT") || !scansIndex(winningPlan)) {
+                log.warn("Chat history plan does not walk {} without sorting: {}",
+                        MongoIndexManifest.MESSAGE_CONVERSATION_INDEX, winningPlan.toJson());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to explain chat history query", e);
+        }
+    }
+
+    private Query historyQuery(UUID conversationId, Instant cursorCreatedAt, ObjectId cursorId, boolean asc, int limit) {
+        Criteria criteria = Criteria.where("conversationId").is(conversationId);
+
+        if (cursorCreatedAt != null && cursorId != null) {
+            Criteria pagingCriteria;
+            if (asc) {
+                pagingCriteria = new Criteria().orOperator(
+                        Criteria.where("createdAt").gt(cursorCreatedAt),
+                        new Criteria().and("createdAt").is(cursorCreatedAt).and("_id").gt(cursorId)
+                );
+            } else {
+                pagingCriteria = new Criteria().orOperator(
+                        Criteria.where("createdAt").lt(cursorCreatedAt),
+                        new Criteria().and("createdAt").is(cursorCreatedAt).and("_id").lt(cursorId)
+                );
+            }
+            criteria = criteria.andOperator(pagingCriteria);
+        }
+
+        Query query = new Query(criteria);
+        if (asc) {
+            query.with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id")));
+        } else {
+            query.with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")));
+        }
+        query.limit(limit);
+        if (indexPresent) {
+            query.withHint(MongoIndexManifest.MESSAGE_CONVERSATION_INDEX);
+        }
+        return query;
+    }
+
+    private boolean hasStage(Document plan, String stage) {
+        if (plan == null) {
+            return false;
+        }
+        if (stage.equals(plan.getString("stage"))) {
+            return true;
+        }
+        if (hasStage(plan.get("inputStage", Document.class), stage)) {
+            return true;
+        }
+        List<Document> inputStages = plan.getList("inputStages", Document.class);
+        return inputStages != null && inputStages.stream().anyMatch(child -> hasStage(child, stage));
+    }
+
+    private boolean scansIndex(Document plan) {
+        if (plan == null) {
+            return false;
+        }
+        if ("IXSCAN".equals(plan.getString("stage"))) {
+            return MongoIndexManifest.MESSAGE_CONVERSATION_INDEX.equals(plan.getString("indexName"));
+        }
+        if (scansIndex(plan.get("inputStage", Document.class))) {
+            return true;
+        }
+        List<Document> inputStages = plan.getList("inputStages", Document.class);
+        return inputStages != null && inputStages.stream().anyMatch(this::scansIndex);
+    }
+}
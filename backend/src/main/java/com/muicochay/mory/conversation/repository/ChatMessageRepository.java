@@ -3,9 +3,11 @@ package com.muicochay.mory.conversation.repository;
 import com.muicochay.mory.conversation.document.ChatMessage;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
-    List<ChatMessage> findByConversationIdOrderByCreatedAtDesc(UUID conversationId);
+public interface ChatMessageRepository extends MongoRepository<ChatMessage, String>, ChatMessageCustomRepository {
+    Optional<ChatMessage> findByIdAndConversationId(String id, UUID conversationId);
+
+    boolean existsByIdAndConversationId(String id, UUID conversationId);
 }
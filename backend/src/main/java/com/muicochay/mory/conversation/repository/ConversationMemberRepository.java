@@ -8,4 +8,6 @@ import java.util.UUID;
 
 public interface ConversationMemberRepository extends JpaRepository<ConversationMember, UUID> {
     List<ConversationMember> findByConversationIdAndUserIdIn(UUID conversationId, List<UUID> userIds);
-}
\ No newline at end of file
+
+    List<ConversationMember> findByUserId(UUID userId);
+}
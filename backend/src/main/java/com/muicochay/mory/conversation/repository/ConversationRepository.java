@@ -3,6 +3,7 @@ package com.muicochay.mory.conversation.repository;
 import com.muicochay.mory.conversation.entity.Conversation;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -57,4 +58,13 @@ public interface ConversationRepository extends JpaRepository<Conversation, UUID
     @EntityGraph(attributePaths = {"members"})
     @Query("SELECT c FROM Conversation c WHERE c.id = :id")
     Optional<Conversation> findByIdWithMembers(@Param("id") UUID id);
+
+    @Modifying
+    @Query("""
+            UPDATE Conversation c
+            SET c.lastMessageId = :messageId, c.lastMessageSentAt = :sentAt
+            WHERE c.id = :id
+              AND (c.lastMessageSentAt IS NULL OR c.lastMessageSentAt < :sentAt)
+            """)
+    int updateLastMessage(@Param("id") UUID id, @Param("messageId") String messageId, @Param("sentAt") Instant sentAt);
 }
@@ -0,0 +1,164 @@
+package com.muicochay.mory.conversation.service;
+
+import com.muicochay.mory.conversation.cache.ConversationMembershipCache;
+import com.muicochay.mory.conversation.document.ChatMessage;
+import com.muicochay.mory.conversation.dto.ChatMessagePageResponse;
+import com.muicochay.mory.conversation.mapper.ChatMessageMapper;
+import com.muicochay.mory.conversation.repository.ChatMessageRepository;
+import com.muicochay.mory.shared.exception.global.InvalidArgumentEx;
+import com.muicochay.mory.shared.exception.global.ResourcesAccessDeniedEx;
+import com.muicochay.mory.shared.exception.global.ResourcesNotFoundEx;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads chat history in pages, before or after a cursor, or around a given message.
+ *
+ * <p>Clients may ask for a subset of {@link #PROJECTABLE_FIELDS}; {@code id} and {@code createdAt} are
+ * always returned since they form the cursors. A cursor is both {@code cursorCreatedAt} and
+ * {@code cursorId}; whether a page has messages on the side it was not read towards is checked with a
+ * one-message lookup.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "conversationId", "senderId", "text", "replyToMessageId", "replyToMomentId", "updatedAt"
+    );
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ConversationMembershipCache conversationMembershipCache;
+    private final ChatMessageMapper chatMessageMapper;
+
+    /**
+     * Messages older than the cursor, or the latest messages when no cursor is given.
+     */
+    public ChatMessagePageResponse getMessagesBefore(
+            UUID userId, UUID conversationId, Instant cursorCreatedAt, ObjectId cursorId, int size, Collection<String> fields
+    ) {
+        boolean hasCursor = checkCursor(cursorCreatedAt, cursorId);
+        checkMember(userId, conversationId);
+        int limit = pageSize(size);
+        List<ChatMessage> older = chatMessageRepository.findHistoryKeyset(
+                conversationId, cursorCreatedAt, cursorId, false, limit + 1, projection(fields));
+        boolean hasOlder = trim(older, limit);
+        boolean hasNewer = hasCursor
+                && chatMessageRepository.existsHistoryKeyset(conversationId, cursorCreatedAt, cursorId, true);
+        return page(older, hasOlder, hasNewer);
+    }
+
+    /**
+     * Messages newer than the cursor.
+     */
+    public ChatMessagePageResponse getMessagesAfter(
+            UUID userId, UUID conversationId, Instant cursorCreatedAt, ObjectId cursorId, int size, Collection<String> fields
+    ) {
+        if (!checkCursor(cursorCreatedAt, cursorId)) {
+            throw new InvalidArgumentEx("Reading newer messages requires cursorCreatedAt and cursorId");
+        }
+        checkMember(userId, conversationId);
+        int limit = pageSize(size);
+        List<ChatMessage> newer = chatMessageRepository.findHistoryKeyset(
+                conversationId, cursorCreatedAt, cursorId, true, limit + 1, projection(fields));
+        boolean hasNewer = trim(newer, limit);
+        boolean hasOlder = chatMessageRepository.existsHistoryKeyset(conversationId, cursorCreatedAt, cursorId, false);
+        Collections.reverse(newer);
+        return page(newer, hasOlder, hasNewer);
+    }
+
+    /**
+     * The given message with about half a page on each side, e.g. to jump to the target of a reply.
+     */
+    public ChatMessagePageResponse getMessagesAround(
+            UUID userId, UUID conversationId, String messageId, int size, Collection<String> fields
+    ) {
+        if (!ObjectId.isValid(messageId)) {
+            throw new InvalidArgumentEx("Invalid message id: " + messageId);
+        }
+        checkMember(userId, conversationId);
+        Collection<String> projection = projection(fields);
+        ChatMessage anchor = chatMessageRepository.findInConversation(conversationId, messageId, projection)
+                .orElseThrow(() -> new ResourcesNotFoundEx("Message not found with id: " + messageId));
+        ObjectId anchorId = new ObjectId(anchor.getId());
+
+        int limit = pageSize(size);
+        int newerLimit = (limit - 1) / 2;
+        int olderLimit = limit - 1 - newerLimit;
+
+        List<ChatMessage> newer = chatMessageRepository.findHistoryKeyset(
+                conversationId, anchor.getCreatedAt(), anchorId, true, newerLimit + 1, projection);
+        List<ChatMessage> older = chatMessageRepository.findHistoryKeyset(
+                conversationId, anchor.getCreatedAt(), anchorId, false, olderLimit + 1, projection);
+        boolean hasNewer = trim(newer, newerLimit);
+        boolean hasOlder = trim(older, olderLimit);
+
+        List<ChatMessage> messages = new ArrayList<>(newer.size() + 1 + older.size());
+        messages.addAll(newer.reversed());
+        messages.add(anchor);
+        messages.addAll(older);
+        return page(messages, hasOlder, hasNewer);
+    }
+
+    /**
+     * @return whether a complete cursor was given
+     */
+    private boolean checkCursor(Instant cursorCreatedAt, ObjectId cursorId) {
+        if ((cursorCreatedAt == null) != (cursorId == null)) {
+            throw new InvalidArgumentEx("cursorCreatedAt and cursorId must be provided together");
+        }
+        return cursorId != null;
+    }
+
+    private void checkMember(UUID userId, UUID conversationId) {
+        if (!conversationMembershipCache.isMember(conversationId, userId)) {
+            throw new ResourcesAccessDeniedEx("You are not a member of this conversation");
+        }
+    }
+
+    private int pageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
+    private Collection<String> projection(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return List.of();
+        }
+        return fields.stream().filter(PROJECTABLE_FIELDS::contains).distinct().toList();
+    }
+
+    /**
+     * Drops the extra message fetched to detect another page.
+     */
+    private boolean trim(List<ChatMessage> messages, int limit) {
+        if (messages.size() > limit) {
+            messages.subList(limit, messages.size()).clear();
+            return true;
+        }
+        return false;
+    }
+
+    private ChatMessagePageResponse page(List<ChatMessage> newestFirst, boolean hasOlder, boolean hasNewer) {
+        ChatMessage newest = newestFirst.isEmpty() ? null : newestFirst.getFirst();
+        ChatMessage oldest = newestFirst.isEmpty() ? null : newestFirst.getLast();
+        return ChatMessagePageResponse.builder()
+                .messages(chatMessageMapper.toResponseList(newestFirst))
+                .hasOlder(hasOlder && oldest != null)
+                .olderCursorCreatedAt(oldest != null ? oldest.getCreatedAt() : null)
+                .olderCursorId(oldest != null ? oldest.getId() : null)
+                .hasNewer(hasNewer && newest != null)
+                .newerCursorCreatedAt(newest != null ? newest.getCreatedAt() : null)
+                .newerCursorId(newest != null ? newest.getId() : null)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.muicochay.mory.conversation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muicochay.mory.conversation.cache.ConversationMembershipCache;
+import com.muicochay.mory.conversation.dto.ChatMessageResponse;
+import com.muicochay.mory.conversation.dto.ConversationMembership;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Relays chat messages between nodes over Redis pub/sub.
+ *
+ * <p>Each node runs an in-memory STOMP broker holding only its own sessions. A sent message is published
+ * on {@link #CHANNEL}, and every node, including the sender's, delivers it to the {@code /user/queue/messages}
+ * of the conversation members connected to it. Members are resolved at delivery time, so a user removed from
+ * a conversation stops receiving its messages as soon as the membership cache drops the old entry.</p>
+ */
+@Slf4j
+@Component
+public class ChatMessageRelay implements MessageListener {
+
+    public static final String CHANNEL = "chat::messages";
+    public static final String USER_DESTINATION = "/queue/messages";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+    private final ConversationMembershipCache conversationMembershipCache;
+    private final ObjectMapper objectMapper;
+
+    public ChatMessageRelay(
+            StringRedisTemplate stringRedisTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            SimpUserRegistry simpUserRegistry,
+            ConversationMembershipCache conversationMembershipCache,
+            ObjectMapper objectMapper,
+            RedisMessageListenerContainer redisMessageListenerContainer
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.simpUserRegistry = simpUserRegistry;
+        this.conversationMembershipCache = conversationMembershipCache;
+        this.objectMapper = objectMapper;
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public void publish(ChatMessageResponse message) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize chat message " + message.getId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            ChatMessageResponse response = objectMapper.readValue(body, ChatMessageResponse.class);
+            ConversationMembership membership = conversationMembershipCache.get(response.getConversationId());
+            if (membership == null) {
+                return;
+            }
+            membership.memberIds().stream()
+                    .map(String::valueOf)
+                    .filter(userName -> simpUserRegistry.getUser(userName) != null)
+                    .forEach(userName -> messagingTemplate.convertAndSendToUser(userName, USER_DESTINATION, response));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed chat message '{}'", body);
+        }
+    }
+}
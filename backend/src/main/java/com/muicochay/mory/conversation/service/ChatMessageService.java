@@ -0,0 +1,66 @@
+package com.muicochay.mory.conversation.service;
+
+import com.muicochay.mory.conversation.cache.ConversationMembershipCache;
+import com.muicochay.mory.conversation.document.ChatMessage;
+import com.muicochay.mory.conversation.dto.ChatMessageResponse;
+import com.muicochay.mory.conversation.dto.ConversationMembership;
+import com.muicochay.mory.conversation.dto.SendChatMessageRequest;
+import com.muicochay.mory.conversation.enums.ConversationStatus;
+import com.muicochay.mory.conversation.mapper.ChatMessageMapper;
+import com.muicochay.mory.shared.exception.global.InvalidArgumentEx;
+import com.muicochay.mory.shared.exception.global.InvalidResourceStateEx;
+import com.muicochay.mory.shared.exception.global.ResourcesAccessDeniedEx;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Sends chat messages: the message is queued for persistence, delivered to every node through
+ * {@link ChatMessageRelay} and counted as unread for the other members.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatMessageService {
+
+    private static final int MAX_TEXT_LENGTH = 4000;
+
+    private final ConversationMembershipCache conversationMembershipCache;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatMessageRelay chatMessageRelay;
+    private final ConversationReadStateService conversationReadStateService;
+    private final ChatMessageMapper chatMessageMapper;
+
+    public ChatMessageResponse send(UUID senderId, UUID conversationId, SendChatMessageRequest request) {
+        ConversationMembership membership = conversationMembershipCache.get(conversationId);
+        if (membership == null || !membership.isMember(senderId)) {
+            throw new ResourcesAccessDeniedEx("You are not a member of this conversation");
+        }
+        if (membership.status() != ConversationStatus.ACTIVE) {
+            throw new InvalidResourceStateEx("Conversation is not active");
+        }
+        if (request.getText() == null || request.getText().isBlank() || request.getText().length() > MAX_TEXT_LENGTH) {
+            throw new InvalidArgumentEx("Message text must be between 1 and " + MAX_TEXT_LENGTH + " characters");
+        }
+
+        Instant now = Instant.now();
+        ChatMessage message = ChatMessage.builder()
+                .id(new ObjectId().toHexString())
+                .conversationId(conversationId)
+                .senderId(senderId)
+                .text(request.getText())
+                .replyToMessageId(request.getReplyToMessageId())
+                .replyToMomentId(request.getReplyToMomentId())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        chatMessageWriter.enqueue(message);
+        ChatMessageResponse response = chatMessageMapper.toResponse(message);
+        chatMessageRelay.publish(response);
+        conversationReadStateService.onMessageSent(conversationId, senderId, message.getId(), now, membership.memberIds());
+        return response;
+    }
+}
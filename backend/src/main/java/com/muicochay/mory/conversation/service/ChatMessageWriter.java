@@ -0,0 +1,245 @@
+package com.muicochay.mory.conversation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muicochay.mory.conversation.config.ChatProperties;
+import com.muicochay.mory.conversation.document.ChatMessage;
+import com.muicochay.mory.conversation.repository.ConversationRepository;
+import com.muicochay.mory.shared.exception.conversation.ChatBusyEx;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists chat messages in micro-batches on a single background thread.
+ *
+ * <p>Messages are delivered before they are written. The writer takes up to {@code batch-size} messages,
+ * waiting at most {@code linger} for more after the first one. It writes them with one unordered
+ * {@code insertMany}, then moves {@code lastMessageId}/{@code lastMessageSentAt} of each conversation in the
+ * batch once. Message ids are assigned by the sender, so a retried batch skips the messages already
+ * written. When the queue is full, new messages are rejected with {@link ChatBusyEx}.</p>
+ *
+ * <p>A batch that still fails after {@code max-attempts} is parked as JSON in the Redis list {@link #PARKED_KEY}
+ * and written again by the next replay, every {@value #REPLAY_INTERVAL_SECONDS} seconds, from any node. Messages
+ * are only lost when Redis is unavailable too, or when the node crashes between popping a parked batch and
+ * writing or parking it again; both are counted in {@code chat.persist.dropped}. Replayed messages may land after
+ * newer ones, which only affects the insertion order, not {@code lastMessageId}.</p>
+ *
+ * <p>Metrics: {@code chat.persist.batch} timer, {@code chat.persist.batch.size} summary,
+ * {@code chat.persist.queue.depth} gauge, {@code chat.persist.parked} and {@code chat.persist.dropped} counters.</p>
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    public static final String PARKED_KEY = "chat::persist::parked";
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final long REPLAY_INTERVAL_SECONDS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final ConversationRepository conversationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChatProperties.Persistence properties;
+    private final BlockingQueue<ChatMessage> queue;
+
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter parked;
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+    private Thread thread;
+    private long nextReplay;
+
+    public ChatMessageWriter(
+            MongoTemplate mongoTemplate,
+            ConversationRepository conversationRepository,
+            TransactionTemplate transactionTemplate,
+            StringRedisTemplate stringRedisTemplate,
+            ObjectMapper objectMapper,
+            ChatProperties chatProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.conversationRepository = conversationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = chatProperties.getPersistence();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchTimer = Timer.builder("chat.persist.batch").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("chat.persist.batch.size").register(meterRegistry);
+        this.parked = Counter.builder("chat.persist.parked").register(meterRegistry);
+        this.dropped = Counter.builder("chat.persist.dropped").register(meterRegistry);
+        Gauge.builder("chat.persist.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        nextReplay = System.nanoTime();
+        thread = Thread.ofPlatform().name("ChatWriter").daemon().start(this::run);
+    }
+
+    /**
+     * Queues a message for persistence.
+     *
+     * @throws ChatBusyEx if the queue is full
+     */
+    public void enqueue(ChatMessage message) {
+        if (!queue.offer(message)) {
+            throw new ChatBusyEx("Chat is busy, please try again later");
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join(10_000);
+    }
+
+    private void run() {
+        List<ChatMessage> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                if (System.nanoTime() - nextReplay >= 0) {
+                    replayParked();
+                    nextReplay = System.nanoTime() + TimeUnit.SECONDS.toNanos(REPLAY_INTERVAL_SECONDS);
+                }
+                ChatMessage first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (running && queue.size() < properties.getBatchSize() - 1) {
+                    Thread.sleep(properties.getLinger());
+                }
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                if (!batch.isEmpty()) {
+                    park(batch);
+                }
+            } catch (Exception e) {
+                log.error("Unexpected error in chat writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<ChatMessage> batch) throws InterruptedException {
+        batchSize.record(batch.size());
+        for (int attempt = 1; attempt <= properties.getMaxAttempts(); attempt++) {
+            try {
+                batchTimer.record(() -> {
+                    insert(batch);
+                    updateConversations(batch);
+                });
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to persist {} chat messages (attempt {}/{})", batch.size(), attempt, properties.getMaxAttempts(), e);
+                if (attempt < properties.getMaxAttempts()) {
+                    Thread.sleep(100L * attempt);
+                }
+            }
+        }
+        park(batch);
+    }
+
+    private void park(List<ChatMessage> batch) {
+        try {
+            List<String> values = new ArrayList<>(batch.size());
+            for (ChatMessage message : batch) {
+                values.add(objectMapper.writeValueAsString(message));
+            }
+            stringRedisTemplate.opsForList().rightPushAll(PARKED_KEY, values);
+            parked.increment(batch.size());
+            log.error("Parked {} chat messages for replay", batch.size());
+        } catch (Exception e) {
+            dropped.increment(batch.size());
+            log.error("Dropped {} chat messages, parking them failed", batch.size(), e);
+        }
+    }
+
+    private void replayParked() throws InterruptedException {
+        List<String> values;
+        try {
+            values = stringRedisTemplate.opsForList().leftPop(PARKED_KEY, properties.getBatchSize());
+        } catch (Exception e) {
+            log.warn("Failed to read parked chat messages", e);
+            return;
+        }
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        List<ChatMessage> batch = new ArrayList<>(values.size());
+        for (String value : values) {
+            try {
+                batch.add(objectMapper.readValue(value, ChatMessage.class));
+            } catch (JsonProcessingException e) {
+                dropped.increment();
+                log.error("Dropped malformed parked chat message '{}'", value);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        log.info("Replaying {} parked chat messages", batch.size());
+        try {
+            persist(batch);
+        } catch (InterruptedException e) {
+            park(batch);
+            throw e;
+        }
+    }
+
+    private void insert(List<ChatMessage> batch) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessage.class)
+                    .insert(batch)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // Lần thử trước đã ghi được một phần
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+    }
+
+    private void updateConversations(List<ChatMessage> batch) {
+        Map<UUID, ChatMessage> latest = new HashMap<>();
+        for (ChatMessage message : batch) {
+            latest.merge(message.getConversationId(), message,
+                    (a, b) -> b.getCreatedAt().isAfter(a.getCreatedAt()) ? b : a);
+        }
+        transactionTemplate.executeWithoutResult(status -> latest.values().forEach(message ->
+                conversationRepository.updateLastMessage(message.getConversationId(), message.getId(), message.getCreatedAt())
+        ));
+    }
+}
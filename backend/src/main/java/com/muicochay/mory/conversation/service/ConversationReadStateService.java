@@ -0,0 +1,337 @@
+package com.muicochay.mory.conversation.service;
+
+import com.muicochay.mory.conversation.dto.ConversationReadState;
+import com.muicochay.mory.conversation.entity.ConversationMember;
+import com.muicochay.mory.conversation.repository.ChatMessageRepository;
+import com.muicochay.mory.conversation.repository.ConversationMemberRepository;
+import com.muicochay.mory.shared.exception.global.InvalidArgumentEx;
+import com.muicochay.mory.shared.exception.global.ResourcesAccessDeniedEx;
+import com.muicochay.mory.shared.exception.global.ResourcesNotFoundEx;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Maintains unread counters and read receipts of conversation members in Redis.
+ *
+ * <p>Each member's read state is the hash {@code conversation:<conversationId>:member:<userId>}
+ * ({@code lastReadMessageId}, {@code lastReadAt}, {@code unreadCount}). Every change adds
+ * {@code <conversationId>:<userId>} to {@code conversation_member_pending_set}, from which the worker
+ * flushes the hashes to {@code conversation_members}. Hashes are seeded from the database the first time a
+ * member is touched; until the worker flushes them, Redis is the source of truth.</p>
+ *
+ * <p>A user's total unread count is kept in {@code conversation::unread-total:<userId>}. It is computed
+ * on first read and then moved by the same deltas as the hashes; it expires after {@link #TOTAL_TTL} to
+ * bound any drift.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversationReadStateService {
+
+    private static final String PENDING_SET_KEY = "conversation_member_pending_set";
+    private static final String TOTAL_KEY_PREFIX = "conversation::unread-total:";
+    private static final Duration TOTAL_TTL = Duration.ofDays(1);
+    // Tin nhắn được gửi tới client trước khi ChatMessageWriter ghi xuống Mongo
+    private static final Duration UNPERSISTED_GRACE = Duration.ofSeconds(30);
+
+    private static final String UNREAD_COUNT = "unreadCount";
+    private static final String LAST_READ_AT = "lastReadAt";
+    private static final String LAST_READ_MESSAGE_ID = "lastReadMessageId";
+
+    // KEYS: pending, hash_1..n, total_1..n | ARGV: n, senderIndex, messageId, sentAt, compositeKey_1..n
+    // Không thay đổi gì nếu còn hash chưa được seed, trả về index của các hash đó
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> MESSAGE_SENT_SCRIPT = new DefaultRedisScript<>("""
+            local n = tonumber(ARGV[1])
+            local sender = tonumber(ARGV[2])
+            local missing = {}
+            for i = 1, n do
+                if redis.call('EXISTS', KEYS[1 + i]) == 0 then
+                    missing[#missing + 1] = i
+                end
+            end
+            if #missing > 0 then
+                return missing
+            end
+            for i = 1, n do
+                local hash = KEYS[1 + i]
+                local total = KEYS[1 + n + i]
+                if i == sender then
+                    local unread = tonumber(redis.call('HGET', hash, 'unreadCount') or '0')
+                    redis.call('HSET', hash, 'unreadCount', 0, 'lastReadMessageId', ARGV[3], 'lastReadAt', ARGV[4])
+                    if unread > 0 and redis.call('EXISTS', total) == 1 and redis.call('DECRBY', total, unread) < 0 then
+                        redis.call('SET', total, 0, 'KEEPTTL')
+                    end
+                else
+                    redis.call('HINCRBY', hash, 'unreadCount', 1)
+                    if redis.call('EXISTS', total) == 1 then
+                        redis.call('INCR', total)
+                    end
+                end
+                redis.call('SADD', KEYS[1], ARGV[4 + i])
+            end
+            return {}
+            """, List.class);
+
+    // KEYS: pending, hash, total | ARGV: compositeKey, messageId ('' giữ nguyên), readAt
+    private static final RedisScript<Long> MARK_READ_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[2]) == 0 then
+                return -1
+            end
+            local unread = tonumber(redis.call('HGET', KEYS[2], 'unreadCount') or '0')
+            redis.call('HSET', KEYS[2], 'unreadCount', 0, 'lastReadAt', ARGV[3])
+            if ARGV[2] ~= '' then
+                redis.call('HSET', KEYS[2], 'lastReadMessageId', ARGV[2])
+            end
+            if unread > 0 and redis.call('EXISTS', KEYS[3]) == 1 and redis.call('DECRBY', KEYS[3], unread) < 0 then
+                redis.call('SET', KEYS[3], 0, 'KEEPTTL')
+            end
+            redis.call('SADD', KEYS[1], ARGV[1])
+            return unread
+            """, Long.class);
+
+    // KEYS: hash_1..n | ARGV: unreadCount, lastReadAt, lastReadMessageId per hash ('' khi null)
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            local seeded = 0
+            for i = 1, #KEYS do
+                if redis.call('EXISTS', KEYS[i]) == 0 then
+                    redis.call('HSET', KEYS[i], 'unreadCount', ARGV[3 * i - 2])
+                    if ARGV[3 * i - 1] ~= '' then
+                        redis.call('HSET', KEYS[i], 'lastReadAt', ARGV[3 * i - 1])
+                    end
+                    if ARGV[3 * i] ~= '' then
+                        redis.call('HSET', KEYS[i], 'lastReadMessageId', ARGV[3 * i])
+                    end
+                    seeded = seeded + 1
+                end
+            end
+            return seeded
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ConversationMemberRepository conversationMemberRepository;
+
+    /**
+     * Records a new message: the sender has read up to it, every other member gets one more unread message.
+     *
+     * @param conversationId the conversation of the message
+     * @param senderId       the sender, expected to be one of {@code memberIds}
+     * @param messageId      the id of the new message
+     * @param sentAt         the time the message was sent
+     * @param memberIds      all members of the conversation
+     */
+    @SuppressWarnings("unchecked")
+    public void onMessageSent(UUID conversationId, UUID senderId, String messageId, Instant sentAt, Collection<UUID> memberIds) {
+        List<UUID> members = new ArrayList<>(new LinkedHashSet<>(memberIds));
+        for (int attempt = 0; attempt < 2 && !members.isEmpty(); attempt++) {
+            List<Long> missing = (List<Long>) redisTemplate.execute(MESSAGE_SENT_SCRIPT,
+                    messageSentKeys(conversationId, members),
+                    messageSentArgs(conversationId, senderId, messageId, sentAt, members));
+            if (missing == null || missing.isEmpty()) {
+                return;
+            }
+            List<UUID> unseeded = missing.stream().map(i -> members.get(i.intValue() - 1)).toList();
+            Set<UUID> nonMembers = new HashSet<>(unseeded);
+            seed(conversationId, unseeded).forEach(nonMembers::remove);
+            // Không có trong DB thì không còn là thành viên
+            members.removeAll(nonMembers);
+        }
+        if (!members.isEmpty()) {
+            log.warn("Could not record message {} of conversation {} in read state", messageId, conversationId);
+        }
+    }
+
+    /**
+     * Marks a conversation as read by a member.
+     *
+     * @param conversationId    the conversation
+     * @param userId            the member
+     * @param lastReadMessageId the last message read, or {@code null} to keep the stored one
+     * @throws InvalidArgumentEx       if the message id is not an ObjectId
+     * @throws ResourcesNotFoundEx     if the message does not belong to the conversation
+     * @throws ResourcesAccessDeniedEx if the user is not a member of the conversation
+     */
+    public void markAsRead(UUID conversationId, UUID userId, String lastReadMessageId) {
+        if (lastReadMessageId != null) {
+            checkMessage(conversationId, lastReadMessageId);
+        }
+        List<String> keys = List.of(PENDING_SET_KEY, memberKey(conversationId, userId), totalKey(userId));
+        Object[] args = {
+                compositeKey(conversationId, userId),
+                lastReadMessageId != null ? lastReadMessageId : "",
+                Instant.now().toString()
+        };
+        Long result = redisTemplate.execute(MARK_READ_SCRIPT, keys, args);
+        if (result != null && result < 0) {
+            if (seed(conversationId, List.of(userId)).isEmpty()) {
+                throw new ResourcesAccessDeniedEx("You are not a member of this conversation");
+            }
+            redisTemplate.execute(MARK_READ_SCRIPT, keys, args);
+        }
+    }
+
+    /**
+     * Checks that the message belongs to the conversation. A message sent in the last
+     * {@link #UNPERSISTED_GRACE} may still be queued for persistence; it is accepted as long as it is not
+     * stored under another conversation.
+     */
+    private void checkMessage(UUID conversationId, String messageId) {
+        if (!ObjectId.isValid(messageId)) {
+            throw new InvalidArgumentEx("Invalid message id: " + messageId);
+        }
+        if (chatMessageRepository.existsByIdAndConversationId(messageId, conversationId)) {
+            return;
+        }
+        Instant sentAt = new ObjectId(messageId).getDate().toInstant();
+        boolean recent = Duration.between(sentAt, Instant.now()).abs().compareTo(UNPERSISTED_GRACE) <= 0;
+        if (!recent || chatMessageRepository.existsById(messageId)) {
+            throw new ResourcesNotFoundEx("Message not found in this conversation: " + messageId);
+        }
+    }
+
+    /**
+     * Read states of the given members, taken from Redis and falling back to the database row when the
+     * member has not been touched since the last restart of Redis.
+     *
+     * @param members the members, loaded from the database
+     * @return the read state of each member, by member id
+     */
+    public Map<UUID, ConversationReadState> getReadStates(List<ConversationMember> members) {
+        if (members.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            members.forEach(m -> conn.hGetAll(memberKey(m.getConversation().getId(), m.getUserId())));
+            return null;
+        });
+
+        Map<UUID, ConversationReadState> states = new HashMap<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            ConversationMember member = members.get(i);
+            ConversationReadState state = hashes.get(i) instanceof Map<?, ?> hash && !hash.isEmpty()
+                    ? toReadState(hash, member)
+                    : new ConversationReadState(member.getLastReadMessageId(), member.getLastReadAt(), member.getUnreadCount());
+            states.put(member.getId(), state);
+        }
+        return states;
+    }
+
+    /**
+     * Total number of unread messages of a user over all their conversations.
+     *
+     * @param userId the user
+     * @return the total unread count
+     */
+    public long getTotalUnread(UUID userId) {
+        String key = totalKey(userId);
+        String cached = redisTemplate.opsForValue().get(key);
+        if (cached != null) {
+            return Long.parseLong(cached);
+        }
+
+        List<ConversationMember> memberships = conversationMemberRepository.findByUserId(userId);
+        long total = getReadStates(memberships).values().stream()
+                .mapToLong(ConversationReadState::unreadCount)
+                .sum();
+        Boolean stored = redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(total), TOTAL_TTL);
+        if (Boolean.FALSE.equals(stored)) {
+            String current = redisTemplate.opsForValue().get(key);
+            return current != null ? Long.parseLong(current) : total;
+        }
+        return total;
+    }
+
+    /**
+     * Seeds the hashes of the given users from the database, leaving existing hashes untouched.
+     *
+     * @return the users that are members of the conversation
+     */
+    private List<UUID> seed(UUID conversationId, List<UUID> userIds) {
+        List<ConversationMember> rows = conversationMemberRepository.findByConversationIdAndUserIdIn(conversationId, userIds);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>(rows.size());
+        List<String> args = new ArrayList<>(rows.size() * 3);
+        for (ConversationMember row : rows) {
+            keys.add(memberKey(conversationId, row.getUserId()));
+            args.add(String.valueOf(row.getUnreadCount()));
+            args.add(row.getLastReadAt() != null ? row.getLastReadAt().toString() : "");
+            args.add(row.getLastReadMessageId() != null ? row.getLastReadMessageId() : "");
+        }
+        redisTemplate.execute(SEED_SCRIPT, keys, args.toArray());
+        return rows.stream().map(ConversationMember::getUserId).toList();
+    }
+
+    private List<String> messageSentKeys(UUID conversationId, List<UUID> members) {
+        List<String> keys = new ArrayList<>(1 + members.size() * 2);
+        keys.add(PENDING_SET_KEY);
+        members.forEach(userId -> keys.add(memberKey(conversationId, userId)));
+        members.forEach(userId -> keys.add(totalKey(userId)));
+        return keys;
+    }
+
+    private Object[] messageSentArgs(UUID conversationId, UUID senderId, String messageId, Instant sentAt, List<UUID> members) {
+        List<String> args = new ArrayList<>(4 + members.size());
+        args.add(String.valueOf(members.size()));
+        args.add(String.valueOf(members.indexOf(senderId) + 1));
+        args.add(messageId);
+        args.add(sentAt.toString());
+        members.forEach(userId -> args.add(compositeKey(conversationId, userId)));
+        return args.toArray();
+    }
+
+    private ConversationReadState toReadState(Map<?, ?> hash, ConversationMember fallback) {
+        Object unreadCount = hash.get(UNREAD_COUNT);
+        Object lastReadAt = hash.get(LAST_READ_AT);
+        Object lastReadMessageId = hash.get(LAST_READ_MESSAGE_ID);
+
+        int unread = fallback.getUnreadCount();
+        if (unreadCount != null) {
+            try {
+                unread = Integer.parseInt(unreadCount.toString());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid unreadCount in Redis for member {}: {}", fallback.getId(), unreadCount);
+            }
+        }
+        Instant readAt = fallback.getLastReadAt();
+        if (lastReadAt != null) {
+            try {
+                readAt = Instant.parse(lastReadAt.toString());
+            } catch (DateTimeParseException e) {
+                log.warn("Invalid lastReadAt in Redis for member {}: {}", fallback.getId(), lastReadAt);
+            }
+        }
+        return new ConversationReadState(
+                lastReadMessageId != null ? lastReadMessageId.toString() : fallback.getLastReadMessageId(),
+                readAt,
+                unread
+        );
+    }
+
+    private String memberKey(UUID conversationId, UUID userId) {
+        return "conversation:" + conversationId + ":member:" + userId;
+    }
+
+    private String compositeKey(UUID conversationId, UUID userId) {
+        return conversationId + ":" + userId;
+    }
+
+    private String totalKey(UUID userId) {
+        return TOTAL_KEY_PREFIX + userId;
+    }
+}
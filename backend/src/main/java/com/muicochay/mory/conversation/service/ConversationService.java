@@ -3,21 +3,23 @@ package com.muicochay.mory.conversation.service;
 import com.muicochay.mory.connection.utils.ConnectionUtils;
 import com.muicochay.mory.conversation.dto.ConversationMemberDto;
 import com.muicochay.mory.conversation.dto.ConversationPageResponse;
+import com.muicochay.mory.conversation.dto.ConversationReadState;
 import com.muicochay.mory.conversation.dto.ConversationResponse;
 import com.muicochay.mory.conversation.entity.Conversation;
 import com.muicochay.mory.conversation.entity.ConversationMember;
 import com.muicochay.mory.conversation.enums.ConversationMemberRole;
 import com.muicochay.mory.conversation.enums.ConversationStatus;
 import com.muicochay.mory.conversation.enums.ConversationType;
+import com.muicochay.mory.conversation.event.ConversationMembersChangedEvent;
 import com.muicochay.mory.conversation.mapper.ChatMessageMapper;
 import com.muicochay.mory.conversation.repository.ChatMessageRepository;
 import com.muicochay.mory.conversation.repository.ConversationMemberRepository;
 import com.muicochay.mory.conversation.repository.ConversationRepository;
 import com.muicochay.mory.story.entity.Story;
-import com.muicochay.mory.user.entity.User;
-import com.muicochay.mory.user.mapper.UserMapper;
-import com.muicochay.mory.user.repositoriy.UserRepository;
+import com.muicochay.mory.user.cache.UserPreviewCache;
+import com.muicochay.mory.user.dto.UserPreviewResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,10 +32,11 @@ import java.util.stream.Collectors;
 public class ConversationService {
     private final ConversationRepository conversationRepository;
     private final ConversationMemberRepository conversationMemberRepository;
-    private final UserRepository userRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final ChatMessageMapper chatMessageMapper;
-    private final UserMapper userMapper;
+    private final UserPreviewCache userPreviewCache;
+    private final ConversationReadStateService conversationReadStateService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void createOrUpdatePrivateConversation(UUID userA, UUID userB, ConversationStatus status) {
@@ -45,6 +48,7 @@ public class ConversationService {
             if (existing.getStatus() != status) {
                 existing.setStatus(status);
                 conversationRepository.save(existing);
+                eventPublisher.publishEvent(new ConversationMembersChangedEvent(id));
             }
             return;
         }
@@ -69,6 +73,7 @@ public class ConversationService {
 
         conversation.setMembers(Arrays.asList(m1, m2));
         conversationRepository.save(conversation);
+        eventPublisher.publishEvent(new ConversationMembersChangedEvent(id));
     }
 
     @Transactional
@@ -110,6 +115,7 @@ public class ConversationService {
         conversation.setMembers(allMembers);
 
         conversationRepository.save(conversation);
+        eventPublisher.publishEvent(new ConversationMembersChangedEvent(conversationId));
     }
 
     @Transactional
@@ -124,6 +130,7 @@ public class ConversationService {
         if (conversation.getStatus() != status) {
             conversation.setStatus(status);
             conversationRepository.save(conversation);
+            eventPublisher.publishEvent(new ConversationMembersChangedEvent(conversationId));
         }
     }
 
@@ -152,6 +159,7 @@ public class ConversationService {
 
         if (!newMembers.isEmpty()) {
             conversationMemberRepository.saveAll(newMembers);
+            eventPublisher.publishEvent(new ConversationMembersChangedEvent(conversationId));
         }
     }
 
@@ -168,6 +176,7 @@ public class ConversationService {
 
         if (!membersToRemove.isEmpty()) {
             conversationMemberRepository.deleteAll(membersToRemove);
+            eventPublisher.publishEvent(new ConversationMembersChangedEvent(conversationId));
         }
     }
 
@@ -224,10 +233,10 @@ public class ConversationService {
                 .distinct()
                 .toList();
 
-        List<User> users = userRepository.findAllWithProfileByIds(allUserIds);
-
-        Map<UUID, User> userMap = users.stream()
-                .collect(Collectors.toMap(User::getId, u -> u));
+        Map<UUID, UserPreviewResponse> userPreviewMap = userPreviewCache.getAll(allUserIds);
+        Map<UUID, ConversationReadState> readStates = conversationReadStateService.getReadStates(
+                conversations.stream().flatMap(c -> c.getMembers().stream()).toList()
+        );
 
         List<ConversationResponse> conversationResponses = conversations.stream()
                 .map(c -> ConversationResponse.builder()
@@ -241,10 +250,10 @@ public class ConversationService {
                                         .map(
                                                 m -> ConversationMemberDto.builder()
                                                 .role(m.getRole())
-                                                .lastReadAt(m.getLastReadAt())
-                                                .lastReadMessageId(m.getLastReadMessageId())
-                                                .unreadCount(m.getUnreadCount())
-                                                .user(userMapper.toProfilePreview(userMap.get(m.getUserId())))
+                                                .lastReadAt(readStates.get(m.getId()).lastReadAt())
+                                                .lastReadMessageId(readStates.get(m.getId()).lastReadMessageId())
+                                                .unreadCount(readStates.get(m.getId()).unreadCount())
+                                                .user(userPreviewMap.get(m.getUserId()))
                                                 .build()
                                         ).toList()
                         )
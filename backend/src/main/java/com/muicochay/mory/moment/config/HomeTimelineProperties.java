@@ -0,0 +1,46 @@
+package com.muicochay.mory.moment.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Binds the settings of the precomputed home feed timelines.
+ *
+ * <pre>{@code
+ * feed:
+ *   timeline:
+ *     capacity: 500
+ *     ttl: 7d
+ *     fanout-threshold: 1000
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "feed.timeline")
+@Getter
+@Setter
+public class HomeTimelineProperties {
+
+    /**
+     * Maximum number of entries kept per user; older pages are served by the pull query.
+     */
+    private int capacity = 500;
+
+    /**
+     * How long an untouched timeline stays warm before it is rebuilt on demand.
+     */
+    private Duration ttl = Duration.ofDays(7);
+
+    /**
+     * Audiences larger than this are not pushed; their readers fall back to pull mode.
+     */
+    private int fanoutThreshold = 1000;
+
+    /**
+     * Number of cold timelines rebuilt per scheduler run.
+     */
+    private int rebuildBatchSize = 50;
+}
@@ -10,6 +10,7 @@ import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,6 +20,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 public class MomentReaction {
+    /**
+     * Maximum number of entries kept in {@link #recentReactors}.
+     */
+    public static final int RECENT_REACTORS_LIMIT = 10;
+
     @Id
     private ObjectId id;
 
@@ -27,10 +33,55 @@ public class MomentReaction {
 
     private Map<UUID, ReactionType> userReactions;
 
+    /**
+     * Number of reactions per type, maintained with {@code $inc} by every toggle.
+     */
+    private Map<ReactionType, Integer> counts;
+
+    /**
+     * Total number of reactions, maintained with {@code $inc} by every toggle.
+     * {@code null} on documents written before the counters existed, until they are backfilled by the
+     * next toggle or preview read.
+     */
+    private Integer total;
+
+    /**
+     * Last reactors, oldest first, capped at {@link #RECENT_REACTORS_LIMIT} with {@code $push $slice}.
+     * Feed hydration reads this instead of the full {@link #userReactions} map.
+     */
+    private List<RecentReactor> recentReactors;
+
     public int getTotalReactions() {
-        if (userReactions == null || userReactions.isEmpty()) {
-            return 0;
+        if (total != null) {
+            return total;
+        }
+        return userReactions == null ? 0 : userReactions.size();
+    }
+
+    /**
+     * Returns the ids of the latest reactors, newest first.
+     */
+    public List<UUID> getLatestReactorIds(int limit) {
+        if (recentReactors == null || recentReactors.isEmpty()) {
+            return List.of();
+        }
+        return recentReactors.reversed().stream()
+                .limit(limit)
+                .map(RecentReactor::getUserId)
+                .toList();
+    }
+
+    /**
+     * Returns the reaction of a user present in {@link #recentReactors}, or {@code null}.
+     */
+    public ReactionType getRecentReactionOf(UUID userId) {
+        if (recentReactors == null) {
+            return null;
         }
-        return userReactions.size();
+        return recentReactors.stream()
+                .filter(r -> userId.equals(r.getUserId()))
+                .map(RecentReactor::getReactionType)
+                .findFirst()
+                .orElse(null);
     }
-}
\ No newline at end of file
+}
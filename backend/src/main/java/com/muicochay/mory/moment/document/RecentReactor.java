@@ -0,0 +1,23 @@
+package com.muicochay.mory.moment.document;
+
+import com.muicochay.mory.shared.enums.ReactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entry of the capped {@link MomentReaction#getRecentReactors()} array, oldest first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecentReactor {
+    private UUID userId;
+    private ReactionType reactionType;
+    private Instant reactedAt;
+}
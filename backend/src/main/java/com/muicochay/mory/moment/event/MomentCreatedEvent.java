@@ -0,0 +1,22 @@
+package com.muicochay.mory.moment.event;
+
+import com.muicochay.mory.shared.enums.Visibility;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a moment has been created.
+ *
+ * @param replacedMomentId the previous latest moment of the story, which the new one replaces in home feeds
+ */
+public record MomentCreatedEvent(
+        ObjectId momentId,
+        UUID authorId,
+        UUID storyId,
+        Visibility visibility,
+        Instant createdAt,
+        ObjectId replacedMomentId
+) {
+}
@@ -0,0 +1,21 @@
+package com.muicochay.mory.moment.event;
+
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when the latest moment of a story has been deleted.
+ *
+ * @param previousMomentId  the moment that is now the latest of the story, which takes the deleted one's place in home feeds
+ * @param previousCreatedAt its creation time
+ */
+public record MomentDeletedEvent(
+        ObjectId momentId,
+        UUID authorId,
+        UUID storyId,
+        ObjectId previousMomentId,
+        Instant previousCreatedAt
+) {
+}
@@ -0,0 +1,18 @@
+package com.muicochay.mory.moment.event;
+
+import com.muicochay.mory.shared.enums.Visibility;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when the visibility of a standalone moment has been changed.
+ */
+public record MomentVisibilityChangedEvent(
+        ObjectId momentId,
+        UUID authorId,
+        Visibility visibility,
+        Instant createdAt
+) {
+}
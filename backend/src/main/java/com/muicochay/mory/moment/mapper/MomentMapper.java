@@ -0,0 +1,42 @@
+package com.muicochay.mory.moment.mapper;
+
+import com.muicochay.mory.moment.document.Moment;
+import com.muicochay.mory.moment.dto.MomentResponse;
+import com.muicochay.mory.moment.dto.MomentStoryDto;
+import com.muicochay.mory.story.entity.Story;
+import com.muicochay.mory.user.dto.UserPreviewResponse;
+import org.mapstruct.Mapper;
+
+import java.util.Collections;
+
+@Mapper(componentModel = "spring")
+public interface MomentMapper {
+
+    default MomentResponse toResponse(Moment moment, UserPreviewResponse user, Story story) {
+        MomentStoryDto storyDto = story != null
+                ? MomentStoryDto.builder()
+                .id(story.getId())
+                .type(story.getType())
+                .scope(story.getScope())
+                .title(story.getTitle())
+                .duration(story.getDuration())
+                .build()
+                : null;
+
+        return MomentResponse.builder()
+                .id(moment.getId().toHexString())
+                .story(storyDto)
+                .user(user)
+                .mediaUrl(moment.getMediaUrl())
+                .audioUrl(moment.getAudioUrl())
+                .visibility(moment.getVisibility())
+                .caption(moment.getCaption())
+                .position(moment.getPosition())
+                .dayIndex(moment.getDayIndex())
+                .createdAt(moment.getCreatedAt())
+                .lastModifiedAt(moment.getLastModifiedAt())
+                .tags(Collections.emptyList())
+                .milestone(moment.isMilestone())
+                .build();
+    }
+}
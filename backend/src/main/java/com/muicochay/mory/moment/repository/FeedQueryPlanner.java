@@ -0,0 +1,182 @@
+package com.muicochay.mory.moment.repository;
+
+import com.muicochay.mory.connection.enums.ConnectionType;
+import com.muicochay.mory.moment.document.Moment;
+import com.muicochay.mory.shared.mongo.MongoIndexManifest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Builds the Mongo queries behind the home feed.
+ *
+ * <p>Connected users are grouped by {@link ConnectionType}, so the standalone part of the feed is an
+ * {@code $or} of at most four {@code userId $in} / {@code visibility $in} branches (requester, FRIEND,
+ * CLOSE_FRIEND, SPECIAL) whatever the number of connections. Story moments are fetched by id in a
+ * separate query, and both legs are projected to the fields the feed hydration reads.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedQueryPlanner {
+
+    private static final List<ConnectionType> FEED_CONNECTION_TYPES = List.of(
+            ConnectionType.FRIEND,
+            ConnectionType.CLOSE_FRIEND,
+            ConnectionType.SPECIAL
+    );
+
+    private static final String[] FEED_FIELDS = {
+            "_id", "storyId", "userId", "mediaUrl", "audioUrl", "caption", "visibility",
+            "position", "dayIndex", "milestone", "createdAt", "lastModifiedAt"
+    };
+
+    private static final long INDEX_RECHECK_INTERVAL_MS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean userFeedIndexPresent;
+    private volatile long lastIndexCheckAt;
+
+    /**
+     * Builds the query for the standalone moments of the requester and its connections.
+     */
+    public Query standaloneQuery(
+            UUID requesterId,
+            Map<UUID, ConnectionType> connectedUsers,
+            Instant cursorCreatedAt,
+            ObjectId cursorId,
+            boolean asc,
+            int limit
+    ) {
+        Map<ConnectionType, List<UUID>> userIdsByType = new EnumMap<>(ConnectionType.class);
+        connectedUsers.forEach((userId, type) -> {
+            if (!userId.equals(requesterId)) {
+                userIdsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(userId);
+            }
+        });
+
+        List<Criteria> branches = new ArrayList<>(FEED_CONNECTION_TYPES.size() + 1);
+        branches.add(Criteria.where("userId").is(requesterId));
+        for (ConnectionType type : FEED_CONNECTION_TYPES) {
+            List<UUID> userIds = userIdsByType.get(type);
+            if (userIds == null || userIds.isEmpty()) {
+                continue;
+            }
+            branches.add(new Criteria().andOperator(
+                    Criteria.where("userId").in(userIds),
+                    Criteria.where("visibility").in(type.getAllowedVisibilities())
+            ));
+        }
+
+        Criteria criteria = new Criteria().andOperator(
+                Criteria.where("deletedAt").is(null),
+                Criteria.where("storyId").is(null),
+                branches.size() == 1 ? branches.getFirst() : new Criteria().orOperator(branches)
+        );
+
+        Query query = page(criteria, cursorCreatedAt, cursorId, asc, limit);
+        if (isUserFeedIndexPresent()) {
+            query.withHint(MongoIndexManifest.MOMENT_USER_FEED_INDEX);
+        }
+        return query;
+    }
+
+    /**
+     * Builds the query for the latest story moments resolved from the story table.
+     */
+    public Query storyMomentsQuery(
+            Collection<ObjectId> momentIds,
+            Instant cursorCreatedAt,
+            ObjectId cursorId,
+            boolean asc,
+            int limit
+    ) {
+        Criteria criteria = new Criteria().andOperator(
+                Criteria.where("_id").in(momentIds),
+                Criteria.where("deletedAt").is(null)
+        );
+        return page(criteria, cursorCreatedAt, cursorId, asc, limit);
+    }
+
+    /**
+     * Merges the two legs, both already sorted in feed order, and keeps the first {@code limit} moments.
+     */
+    public List<Moment> merge(List<Moment> standalone, List<Moment> storyMoments, boolean asc, int limit) {
+        if (storyMoments.isEmpty()) {
+            return standalone;
+        }
+        Comparator<Moment> order = Comparator.comparing(Moment::getCreatedAt).thenComparing(Moment::getId);
+        if (!asc) {
+            order = order.reversed();
+        }
+
+        List<Moment> merged = new ArrayList<>(Math.min(limit, standalone.size() + storyMoments.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < standalone.size() || j < storyMoments.size())) {
+            if (j >= storyMoments.size()
+                    || (i < standalone.size() && order.compare(standalone.get(i), storyMoments.get(j)) <= 0)) {
+                merged.add(standalone.get(i++));
+            } else {
+                merged.add(storyMoments.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private Query page(Criteria criteria, Instant cursorCreatedAt, ObjectId cursorId, boolean asc, int limit) {
+        if (cursorCreatedAt != null && cursorId != null) {
+            Criteria pagingCriteria = asc
+                    ? new Criteria().orOperator(
+                            Criteria.where("createdAt").gt(cursorCreatedAt),
+                            new Criteria().and("createdAt").is(cursorCreatedAt).and("_id").gt(cursorId))
+                    : new Criteria().orOperator(
+                            Criteria.where("createdAt").lt(cursorCreatedAt),
+                            new Criteria().and("createdAt").is(cursorCreatedAt).and("_id").lt(cursorId));
+            criteria = new Criteria().andOperator(criteria, pagingCriteria);
+        }
+
+        Query query = new Query(criteria);
+        query.fields().include(FEED_FIELDS);
+        query.with(asc
+                ? Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id"))
+                : Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")));
+        query.limit(limit);
+        return query;
+    }
+
+    /**
+     * Hinting an index that does not exist fails the query, so the hint is only pinned once the index
+     * has been seen; while it is missing (e.g. still being built at startup) the check is repeated at most
+     * once per {@link #INDEX_RECHECK_INTERVAL_MS}.
+     */
+    private boolean isUserFeedIndexPresent() {
+        if (userFeedIndexPresent) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastIndexCheckAt < INDEX_RECHECK_INTERVAL_MS) {
+            return false;
+        }
+        lastIndexCheckAt = now;
+        boolean present = mongoTemplate.indexOps(Moment.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .anyMatch(MongoIndexManifest.MOMENT_USER_FEED_INDEX::equals);
+        if (!present) {
+            log.warn("Index {} is missing on moments, feed query runs without hint",
+                    MongoIndexManifest.MOMENT_USER_FEED_INDEX);
+        }
+        userFeedIndexPresent = present;
+        return present;
+    }
+}
@@ -56,6 +56,7 @@ public interface MomentCustomRepository {
 
     List<StoryMomentStats> getMomentStatsByStoryIds(Collection<UUID> storyIds);
     Optional<StoryMomentStats> getMomentStatsByStoryId(UUID storyId);
+    Optional<Moment> findLatestMomentByStoryId(UUID storyId);
     Optional<Moment> findLatestMomentByUserIdAndStoryId(UUID userId, UUID storyId);
     Optional<Moment> findLatestMomentByStoryIdExcludeUserId(UUID storyId, UUID excludedUserId);
 }
@@ -1,10 +1,7 @@
 package com.muicochay.mory.moment.repository;
 
-import com.muicochay.mory.connection.enums.ConnectionStatus;
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
 import com.muicochay.mory.connection.enums.ConnectionType;
-import com.muicochay.mory.connection.interfaces.ConnectedUserProjection;
-import com.muicochay.mory.connection.repository.ConnectionRepository;
-import com.muicochay.mory.connection.utils.ConnectionUtils;
 import com.muicochay.mory.moment.document.Moment;
 import com.muicochay.mory.shared.enums.Visibility;
 import com.muicochay.mory.shared.exception.global.ResourcesAccessDeniedEx;
@@ -25,7 +22,6 @@ import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Repository
@@ -33,8 +29,9 @@ import java.util.stream.Stream;
 public class MomentCustomRepositoryImpl implements MomentCustomRepository {
 
     private final MongoTemplate mongoTemplate;
-    private final ConnectionRepository connectionRepository;
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
     private final StoryRepository storyRepository;
+    private final FeedQueryPlanner feedQueryPlanner;
 
     @Override
     public int updateVisibilityByStoryId(UUID storyId, Visibility visibility) {
@@ -225,17 +222,7 @@ public class MomentCustomRepositoryImpl implements MomentCustomRepository {
             int limit
     ) {
         // 1. Lấy danh sách user kết nối và connectionType tương ứng
-        List<ConnectedUserProjection> connectedUserProjections = connectionRepository.findConnectedUsersWithTypeByCreatorAndStatus(
-                requesterId,
-                ConnectionStatus.CONNECTED
-        );
-
-        Map<UUID, ConnectionType> userIdToConnectionTypeMap = connectedUserProjections.stream()
-                .filter(c -> !c.getUserId().equals(requesterId))
-                .collect(Collectors.toMap(
-                        ConnectedUserProjection::getUserId,
-                        ConnectedUserProjection::getConnectionType
-                ));
+        Map<UUID, ConnectionType> userIdToConnectionTypeMap = connectionAdjacencyCache.connectionsOf(requesterId);
 
         // Danh sách userId kết nối
         List<UUID> connectedUserIds = userIdToConnectionTypeMap.keySet().stream().toList();
@@ -246,7 +233,7 @@ public class MomentCustomRepositoryImpl implements MomentCustomRepository {
                 Stream.of(requesterId)
         ).toList();
 
-        List<ObjectId> firstMomentIdInStory = storyRepository.findLatestMomentIdsByUserIdsKeysetLatestMoment(
+        List<ObjectId> latestStoryMomentIds = storyRepository.findLatestMomentIdsByUserIdsKeysetLatestMoment(
                 userIds,
                 cursorCreatedAt,
                 cursorId,
@@ -254,73 +241,21 @@ public class MomentCustomRepositoryImpl implements MomentCustomRepository {
                 limit + 1
         );
 
-        // 2. Build Criteria filter cho từng user kết nối dựa trên connectionType và visibility
-        List<Criteria> connectedUserCriteria = userIdToConnectionTypeMap.entrySet().stream()
-                .map(e -> {
-                    UUID userId = e.getKey();
-                    ConnectionType ct = e.getValue();
-
-                    List<Visibility> allowedVisibilities = switch (ct) {
-                        case FRIEND -> List.of(Visibility.ALL_FRIENDS);
-                        case CLOSE_FRIEND -> List.of(Visibility.ALL_FRIENDS, Visibility.CLOSE_FRIENDS);
-                        case SPECIAL ->
-                                List.of(Visibility.ALL_FRIENDS, Visibility.CLOSE_FRIENDS, Visibility.PARTNER_ONLY);
-                        default -> List.of(); // Không lấy gì nếu không xác định
-                    };
-
-                    return new Criteria().andOperator(
-                            Criteria.where("userId").is(userId),
-                            Criteria.where("visibility").in(allowedVisibilities)
-                    );
-                })
-                .toList();
-
-        Criteria connectedUsersCriteria = connectedUserCriteria.isEmpty()
-                ? new Criteria().is(null)
-                : new Criteria().orOperator(connectedUserCriteria.toArray(new Criteria[0]));
-
-        Criteria userOrConnectedCriteria = new Criteria().orOperator(
-                Criteria.where("userId").is(requesterId),
-                connectedUsersCriteria
+        // 2. Moment đơn lẻ: gom user theo connectionType, tối đa 4 nhánh $or
+        List<Moment> standaloneMoments = mongoTemplate.find(
+                feedQueryPlanner.standaloneQuery(requesterId, userIdToConnectionTypeMap, cursorCreatedAt, cursorId, asc, limit),
+                Moment.class
         );
 
-        Criteria baseCriteria = new Criteria().andOperator(
-                Criteria.where("deletedAt").is(null),
-                new Criteria().orOperator(
-                        Criteria.where("storyId").is(null).andOperator(userOrConnectedCriteria),
-                        Criteria.where("storyId").ne(null).andOperator(
-                                Criteria.where("_id").in(firstMomentIdInStory)
-                        )
-                )
-        );
-
-
-        // 3. Phân trang cursor
-        if (cursorCreatedAt != null && cursorId != null) {
-            Criteria pagingCriteria;
-            if (asc) {
-                pagingCriteria = new Criteria().orOperator(
-                        Criteria.where("createdAt").gt(cursorCreatedAt),
-                        new Criteria().and("createdAt").is(cursorCreatedAt).and("_id").gt(cursorId)
-                );
-            } else {
-                pagingCriteria = new Criteria().orOperator(
-                        Criteria.where("createdAt").lt(cursorCreatedAt),
-                        new Criteria().and("createdAt").is(cursorCreatedAt).and("_id").lt(cursorId)
+        // 3. Moment mới nhất của các story, lấy theo _id
+        List<Moment> storyMoments = latestStoryMomentIds.isEmpty()
+                ? List.of()
+                : mongoTemplate.find(
+                        feedQueryPlanner.storyMomentsQuery(latestStoryMomentIds, cursorCreatedAt, cursorId, asc, limit),
+                        Moment.class
                 );
-            }
-            baseCriteria = new Criteria().andOperator(baseCriteria, pagingCriteria);
-        }
-
-        Query query = new Query(baseCriteria);
-        if (asc) {
-            query.with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id")));
-        } else {
-            query.with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")));
-        }
-        query.limit(limit);
 
-        return mongoTemplate.find(query, Moment.class);
+        return feedQueryPlanner.merge(standaloneMoments, storyMoments, asc, limit);
     }
 
     @Override
@@ -340,11 +275,12 @@ public class MomentCustomRepositoryImpl implements MomentCustomRepository {
                 limit + 1
         );
 
-        UUID connectionId = ConnectionUtils.generateConnectionId(targetUserId, requesterId);
         ConnectionType connectionType = requesterId.equals(targetUserId)
                 ? null
-                : connectionRepository.findTypeById(connectionId)
-                .orElseThrow(() -> new ResourcesAccessDeniedEx("Access denied"));
+                : connectionAdjacencyCache.typeOf(requesterId, targetUserId);
+        if (connectionType == null && !requesterId.equals(targetUserId)) {
+            throw new ResourcesAccessDeniedEx("Access denied");
+        }
 
         List<Visibility> allowedVisibilities = connectionType == null
                 ? List.of()
@@ -465,6 +401,19 @@ public class MomentCustomRepositoryImpl implements MomentCustomRepository {
         return Optional.ofNullable(stats);
     }
 
+    @Override
+    public Optional<Moment> findLatestMomentByStoryId(UUID storyId) {
+        Criteria criteria = Criteria.where("storyId").is(storyId)
+                .and("deletedAt").is(null);
+
+        Query query = new Query(criteria);
+        query.with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")));
+        query.limit(1);
+
+        Moment latestMoment = mongoTemplate.findOne(query, Moment.class);
+        return Optional.ofNullable(latestMoment);
+    }
+
     @Override
     public Optional<Moment> findLatestMomentByUserIdAndStoryId(UUID userId, UUID storyId) {
         Criteria criteria = Criteria.where("userId").is(userId)
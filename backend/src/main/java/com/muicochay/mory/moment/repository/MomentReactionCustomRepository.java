@@ -0,0 +1,24 @@
+package com.muicochay.mory.moment.repository;
+
+import com.muicochay.mory.moment.document.MomentReaction;
+import com.muicochay.mory.shared.enums.ReactionType;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface MomentReactionCustomRepository {
+    /**
+     * Atomically toggles the reaction of a user on a moment.
+     *
+     * @return the reaction of the user after the toggle, or {@code null} if it was removed
+     */
+    ReactionType toggleReaction(ObjectId momentId, UUID userId, ReactionType reactionType);
+
+    /**
+     * Loads the reaction documents of a page of moments with only the counters, the recent reactors
+     * and the requester's own entry of {@code userReactions}.
+     */
+    List<MomentReaction> findPreviewsByMomentIds(Collection<ObjectId> momentIds, UUID requesterId);
+}
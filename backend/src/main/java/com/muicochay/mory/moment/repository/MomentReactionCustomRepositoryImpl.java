@@ -0,0 +1,205 @@
+package com.muicochay.mory.moment.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.muicochay.mory.moment.document.MomentReaction;
+import com.muicochay.mory.moment.document.RecentReactor;
+import com.muicochay.mory.shared.enums.ReactionType;
+import com.muicochay.mory.shared.exception.global.ConcurrentUpdateEx;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Reaction toggles as single conditional updates on {@code moment_reactions}.
+ *
+ * <p>Each update is guarded by the reaction the user had when it was read ({@code userReactions.<uid>}),
+ * so the per-type counters and the total can only move together with the user's entry. Toggles from
+ * different users touch different fields and never conflict; a toggle that loses a race against the
+ * same user is re-read and retried.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class MomentReactionCustomRepositoryImpl implements MomentReactionCustomRepository {
+
+    private static final int MAX_TOGGLE_ATTEMPTS = 5;
+
+    private static final String MOMENT_ID = "momentId";
+    private static final String USER_REACTIONS = "userReactions";
+    private static final String COUNTS = "counts";
+    private static final String TOTAL = "total";
+    private static final String RECENT_REACTORS = "recentReactors";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public ReactionType toggleReaction(ObjectId momentId, UUID userId, ReactionType reactionType) {
+        String userField = userField(userId);
+
+        for (int attempt = 0; attempt < MAX_TOGGLE_ATTEMPTS; attempt++) {
+            MomentReaction snapshot = findUserSnapshot(momentId, userField);
+            if (snapshot != null && snapshot.getTotal() == null) {
+                backfillCounters(momentId);
+                continue;
+            }
+
+            ReactionType current = snapshot != null && snapshot.getUserReactions() != null
+                    ? snapshot.getUserReactions().get(userId)
+                    : null;
+            try {
+                if (current == null && react(momentId, userId, reactionType)) {
+                    return reactionType;
+                }
+                if (current == reactionType && unreact(momentId, userId, current)) {
+                    return null;
+                }
+                if (current != null && current != reactionType && switchReaction(momentId, userId, current, reactionType)) {
+                    return reactionType;
+                }
+            } catch (DuplicateKeyException e) {
+                // Lần react đầu tiên bị trùng với lần tạo document khác, đọc lại và thử lại
+            }
+        }
+        throw new ConcurrentUpdateEx("Reaction on moment " + momentId + " is being updated concurrently");
+    }
+
+    /**
+     * Reads the counters and reactor previews only. Documents written before the counters existed are
+     * backfilled from their reaction map and read again, so they are not shown without reactions.
+     */
+    @Override
+    public List<MomentReaction> findPreviewsByMomentIds(Collection<ObjectId> momentIds, UUID requesterId) {
+        List<MomentReaction> previews = findPreviews(momentIds, requesterId);
+        List<ObjectId> legacyIds = previews.stream()
+                .filter(preview -> preview.getTotal() == null)
+                .map(MomentReaction::getMomentId)
+                .toList();
+        if (legacyIds.isEmpty()) {
+            return previews;
+        }
+
+        legacyIds.forEach(this::backfillCounters);
+        Map<ObjectId, MomentReaction> backfilled = new HashMap<>();
+        findPreviews(legacyIds, requesterId).forEach(preview -> backfilled.put(preview.getMomentId(), preview));
+        return previews.stream()
+                .map(preview -> backfilled.getOrDefault(preview.getMomentId(), preview))
+                .toList();
+    }
+
+    private List<MomentReaction> findPreviews(Collection<ObjectId> momentIds, UUID requesterId) {
+        Query query = Query.query(Criteria.where(MOMENT_ID).in(momentIds));
+        query.fields().include(MOMENT_ID, COUNTS, TOTAL, RECENT_REACTORS, USER_REACTIONS + "." + requesterId);
+        return mongoTemplate.find(query, MomentReaction.class);
+    }
+
+    private MomentReaction findUserSnapshot(ObjectId momentId, String userField) {
+        Query query = Query.query(Criteria.where(MOMENT_ID).is(momentId));
+        query.fields().include(userField, TOTAL);
+        return mongoTemplate.findOne(query, MomentReaction.class);
+    }
+
+    /**
+     * First reaction of the user; creates the document when the moment has none yet.
+     */
+    private boolean react(ObjectId momentId, UUID userId, ReactionType reactionType) {
+        String userField = userField(userId);
+        Query query = Query.query(Criteria.where(MOMENT_ID).is(momentId).and(userField).exists(false));
+        Update update = new Update()
+                .set(userField, reactionType.name())
+                .inc(COUNTS + "." + reactionType.name(), 1)
+                .inc(TOTAL, 1);
+        pushRecentReactor(update, userId, reactionType);
+        UpdateResult result = mongoTemplate.upsert(query, update, MomentReaction.class);
+        return result.getModifiedCount() > 0 || result.getUpsertedId() != null;
+    }
+
+    private boolean unreact(ObjectId momentId, UUID userId, ReactionType current) {
+        String userField = userField(userId);
+        Query query = Query.query(Criteria.where(MOMENT_ID).is(momentId).and(userField).is(current.name()));
+        Update update = new Update()
+                .unset(userField)
+                .inc(COUNTS + "." + current.name(), -1)
+                .inc(TOTAL, -1)
+                .pull(RECENT_REACTORS, new Document("userId", userId));
+        return mongoTemplate.updateFirst(query, update, MomentReaction.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Changes the reaction type; the user's preview entry is updated in place, or pushed back if it was evicted.
+     */
+    private boolean switchReaction(ObjectId momentId, UUID userId, ReactionType current, ReactionType reactionType) {
+        String userField = userField(userId);
+        Query inPreview = Query.query(Criteria.where(MOMENT_ID).is(momentId)
+                .and(userField).is(current.name())
+                .and(RECENT_REACTORS + ".userId").is(userId));
+        Update update = switchUpdate(userField, current, reactionType)
+                .set(RECENT_REACTORS + ".$.reactionType", reactionType.name());
+        if (mongoTemplate.updateFirst(inPreview, update, MomentReaction.class).getModifiedCount() > 0) {
+            return true;
+        }
+
+        Query notInPreview = Query.query(Criteria.where(MOMENT_ID).is(momentId)
+                .and(userField).is(current.name())
+                .and(RECENT_REACTORS + ".userId").ne(userId));
+        Update pushUpdate = switchUpdate(userField, current, reactionType);
+        pushRecentReactor(pushUpdate, userId, reactionType);
+        return mongoTemplate.updateFirst(notInPreview, pushUpdate, MomentReaction.class).getModifiedCount() > 0;
+    }
+
+    private Update switchUpdate(String userField, ReactionType current, ReactionType reactionType) {
+        return new Update()
+                .set(userField, reactionType.name())
+                .inc(COUNTS + "." + current.name(), -1)
+                .inc(COUNTS + "." + reactionType.name(), 1);
+    }
+
+    private void pushRecentReactor(Update update, UUID userId, ReactionType reactionType) {
+        RecentReactor reactor = RecentReactor.builder()
+                .userId(userId)
+                .reactionType(reactionType)
+                .reactedAt(Instant.now())
+                .build();
+        update.push(RECENT_REACTORS).slice(-MomentReaction.RECENT_REACTORS_LIMIT).each(reactor);
+    }
+
+    private String userField(UUID userId) {
+        return USER_REACTIONS + "." + userId;
+    }
+
+    /**
+     * Initialises the counters and the reactor preview of a document written before they existed,
+     * once, from its reaction map.
+     */
+    private void backfillCounters(ObjectId momentId) {
+        MomentReaction doc = mongoTemplate.findOne(
+                Query.query(Criteria.where(MOMENT_ID).is(momentId)), MomentReaction.class);
+        if (doc == null) {
+            return;
+        }
+        Map<ReactionType, Integer> counts = new EnumMap<>(ReactionType.class);
+        List<RecentReactor> recentReactors = new ArrayList<>();
+        if (doc.getUserReactions() != null) {
+            doc.getUserReactions().forEach((userId, type) -> {
+                counts.merge(type, 1, Integer::sum);
+                if (recentReactors.size() < MomentReaction.RECENT_REACTORS_LIMIT) {
+                    recentReactors.add(RecentReactor.builder().userId(userId).reactionType(type).build());
+                }
+            });
+        }
+
+        Query query = Query.query(Criteria.where(MOMENT_ID).is(momentId).and(TOTAL).exists(false));
+        Update update = new Update()
+                .set(COUNTS, counts)
+                .set(TOTAL, doc.getUserReactions() == null ? 0 : doc.getUserReactions().size())
+                .set(RECENT_REACTORS, recentReactors);
+        mongoTemplate.updateFirst(query, update, MomentReaction.class);
+    }
+}
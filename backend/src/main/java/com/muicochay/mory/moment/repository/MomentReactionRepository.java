@@ -7,7 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 import java.util.Optional;
 
-public interface MomentReactionRepository extends MongoRepository<MomentReaction, ObjectId> {
+public interface MomentReactionRepository extends MongoRepository<MomentReaction, ObjectId>, MomentReactionCustomRepository {
     Optional<MomentReaction> findByMomentId(ObjectId momentId);
 
     List<MomentReaction> findAllByMomentIdIn(List<ObjectId> momentIds);
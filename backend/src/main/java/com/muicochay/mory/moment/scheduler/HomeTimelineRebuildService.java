@@ -0,0 +1,39 @@
+package com.muicochay.mory.moment.scheduler;
+
+import com.muicochay.mory.moment.config.HomeTimelineProperties;
+import com.muicochay.mory.moment.service.HomeTimelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rebuilds in the background the home timelines invalidated by connection changes,
+ * so most readers find a warm timeline instead of paying for the rebuild on their next request.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeTimelineRebuildService {
+
+    private final HomeTimelineService homeTimelineService;
+    private final HomeTimelineProperties properties;
+
+    @Scheduled(fixedDelayString = "${feed.timeline.rebuild-interval-ms:30000}")
+    public void rebuildInvalidatedTimelines() {
+        List<UUID> userIds = homeTimelineService.pollRebuildQueue(properties.getRebuildBatchSize());
+        for (UUID userId : userIds) {
+            if (homeTimelineService.isWarm(userId)) {
+                continue;
+            }
+            try {
+                homeTimelineService.rebuild(userId);
+            } catch (Exception e) {
+                log.warn("Failed to rebuild home timeline for user {}", userId, e);
+            }
+        }
+    }
+}
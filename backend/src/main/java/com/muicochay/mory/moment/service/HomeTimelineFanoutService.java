@@ -0,0 +1,129 @@
+package com.muicochay.mory.moment.service;
+
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
+import com.muicochay.mory.connection.enums.ConnectionStatus;
+import com.muicochay.mory.connection.enums.ConnectionType;
+import com.muicochay.mory.connection.event.ConnectionChangedEvent;
+import com.muicochay.mory.connection.repository.ConnectionRepository;
+import com.muicochay.mory.moment.config.HomeTimelineProperties;
+import com.muicochay.mory.moment.event.MomentCreatedEvent;
+import com.muicochay.mory.moment.event.MomentDeletedEvent;
+import com.muicochay.mory.moment.event.MomentVisibilityChangedEvent;
+import com.muicochay.mory.shared.enums.Visibility;
+import com.muicochay.mory.story.repository.StoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Fans moments out to the home timelines of their audience once the writing transaction has committed.
+ *
+ * <p>The audience of a standalone moment is the author plus the connections whose
+ * {@link com.muicochay.mory.connection.enums.ConnectionType} allows the moment's visibility.
+ * The audience of a story moment is every story participant plus their connections, mirroring
+ * the pull query in {@code MomentCustomRepositoryImpl#findFeedsKeyset}; the new moment replaces
+ * the previous latest moment of the story in those timelines, and deleting the latest moment puts the
+ * one before it back.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeTimelineFanoutService {
+
+    private final HomeTimelineService homeTimelineService;
+    private final ConnectionRepository connectionRepository;
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
+    private final StoryRepository storyRepository;
+    private final HomeTimelineProperties properties;
+
+    @Async("feedFanoutExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMomentCreated(MomentCreatedEvent event) {
+        try {
+            Set<UUID> audience = event.storyId() == null
+                    ? standaloneAudience(event.authorId(), event.visibility())
+                    : storyAudience(event.storyId(), event.authorId());
+
+            if (audience.size() > properties.getFanoutThreshold()) {
+                homeTimelineService.markPullAuthor(event.authorId(), audience);
+                return;
+            }
+            homeTimelineService.push(event.momentId(), event.createdAt(), audience, event.replacedMomentId());
+        } catch (Exception e) {
+            log.error("Failed to fan out moment {}", event.momentId(), e);
+        }
+    }
+
+    @Async("feedFanoutExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMomentDeleted(MomentDeletedEvent event) {
+        try {
+            Set<UUID> audience = storyAudience(event.storyId(), event.authorId());
+            if (audience.size() > properties.getFanoutThreshold()) {
+                homeTimelineService.markPullAuthor(event.authorId(), audience);
+                return;
+            }
+            homeTimelineService.push(event.previousMomentId(), event.previousCreatedAt(), audience, event.momentId());
+        } catch (Exception e) {
+            log.error("Failed to restore the previous moment of story {} in timelines", event.storyId(), e);
+        }
+    }
+
+    @Async("feedFanoutExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMomentVisibilityChanged(MomentVisibilityChangedEvent event) {
+        try {
+            Map<UUID, ConnectionType> connections = connectionAdjacencyCache.connectionsOf(event.authorId());
+
+            Set<UUID> allowed = new HashSet<>();
+            Set<UUID> revoked = new HashSet<>();
+            allowed.add(event.authorId());
+            connections.forEach((userId, type) -> {
+                if (type.getAllowedVisibilities().contains(event.visibility())) {
+                    allowed.add(userId);
+                } else {
+                    revoked.add(userId);
+                }
+            });
+
+            homeTimelineService.remove(event.momentId(), revoked);
+            if (allowed.size() > properties.getFanoutThreshold()) {
+                homeTimelineService.markPullAuthor(event.authorId(), allowed);
+                return;
+            }
+            homeTimelineService.push(event.momentId(), event.createdAt(), allowed, null);
+        } catch (Exception e) {
+            log.error("Failed to refresh timelines for moment {}", event.momentId(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        homeTimelineService.invalidate(event.userA());
+        homeTimelineService.invalidate(event.userB());
+    }
+
+    private Set<UUID> standaloneAudience(UUID authorId, Visibility visibility) {
+        Set<UUID> audience = new HashSet<>();
+        audience.add(authorId);
+        connectionAdjacencyCache.connectionsOf(authorId).forEach((userId, type) -> {
+            if (type.getAllowedVisibilities().contains(visibility)) {
+                audience.add(userId);
+            }
+        });
+        return audience;
+    }
+
+    private Set<UUID> storyAudience(UUID storyId, UUID authorId) {
+        Set<UUID> audience = new HashSet<>(storyRepository.findParticipantIds(storyId));
+        audience.add(authorId);
+        audience.addAll(connectionRepository.findConnectedUserIdsByUserIds(
+                audience, ConnectionStatus.CONNECTED.name()));
+        return audience;
+    }
+}
@@ -0,0 +1,295 @@
+package com.muicochay.mory.moment.service;
+
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
+import com.muicochay.mory.moment.config.HomeTimelineProperties;
+import com.muicochay.mory.moment.document.Moment;
+import com.muicochay.mory.moment.repository.MomentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service that maintains a precomputed home feed timeline per user in Redis.
+ *
+ * <p>Each timeline is a sorted set of moment ids scored by their creation time in epoch millis,
+ * capped at {@link HomeTimelineProperties#getCapacity()} entries. Moments are pushed by
+ * {@link HomeTimelineFanoutService} when they are written, so reading the first pages of a feed
+ * becomes a single range scan plus one lookup by id instead of the connection/story pull query.</p>
+ *
+ * <p>Timelines are rebuilt lazily from {@link MomentRepository#findFeedsKeyset} when they are cold,
+ * and readers that follow an author whose audience exceeds the fan-out threshold are served by the
+ * pull query directly.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeTimelineService {
+
+    private static final String TIMELINE_KEY_PREFIX = "timeline::home:";
+    private static final String WARM_KEY_PREFIX = "timeline::warm:";
+    private static final String PULL_MODE_KEY_PREFIX = "timeline::pull:";
+    private static final String PULL_AUTHORS_KEY = "timeline::pull-authors";
+    private static final String REBUILD_QUEUE_KEY = "timeline::rebuild-queue";
+    private static final int MIN_SCAN_WINDOW = 20;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MomentRepository momentRepository;
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
+    private final HomeTimelineProperties properties;
+
+    /**
+     * Loads a page of the home feed of the given user, newest first.
+     *
+     * <p>The timeline is scanned by a {@code (score, member)} cursor rather than an offset, so entries that
+     * point at deleted or missing moments can be removed while scanning without shifting later windows.
+     * When the page runs past the oldest entry of a full timeline, the remainder is completed by the
+     * pull query using the last returned moment as cursor.</p>
+     *
+     * @param requesterId     the feed owner
+     * @param cursorCreatedAt creation time of the last moment of the previous page, or {@code null}
+     * @param cursorId        id of the last moment of the previous page, or {@code null}
+     * @param limit           maximum number of moments to return
+     * @return the moments of the page in descending {@code (createdAt, id)} order
+     */
+    public List<Moment> findFeedKeyset(UUID requesterId, Instant cursorCreatedAt, ObjectId cursorId, int limit) {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(warmKey(requesterId)))) {
+            rebuild(requesterId);
+        }
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(pullModeKey(requesterId)))) {
+            return momentRepository.findFeedsKeyset(requesterId, cursorCreatedAt, cursorId, false, limit);
+        }
+
+        String key = timelineKey(requesterId);
+        double maxScore = cursorCreatedAt != null ? cursorCreatedAt.toEpochMilli() : Double.POSITIVE_INFINITY;
+        ObjectId maxId = cursorCreatedAt != null ? cursorId : null;
+        int window = Math.max(limit * 2, MIN_SCAN_WINDOW);
+        List<Moment> page = new ArrayList<>(limit);
+        long tieOffset = 0;
+        boolean exhausted = false;
+
+        while (page.size() < limit && !exhausted) {
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                    .reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, maxScore, tieOffset, window);
+            if (tuples == null || tuples.isEmpty()) {
+                exhausted = true;
+                break;
+            }
+            exhausted = tuples.size() < window;
+
+            double boundScore = maxScore;
+            ObjectId boundId = maxId;
+            List<ObjectId> candidateIds = tuples.stream()
+                    .filter(tuple -> isBeforeCursor(tuple, boundScore, boundId))
+                    .map(tuple -> new ObjectId(Objects.requireNonNull(tuple.getValue())))
+                    .toList();
+            List<Moment> live = loadLiveMoments(key, candidateIds);
+            page.addAll(live);
+
+            ZSetOperations.TypedTuple<String> last = tuples.stream().reduce((first, second) -> second).orElseThrow();
+            double lastScore = Objects.requireNonNull(last.getScore());
+            if (lastScore == maxScore) {
+                // the whole window shares the cursor score; step over it, minus the stale entries just removed
+                tieOffset += tuples.size() - (candidateIds.size() - live.size());
+            } else {
+                maxScore = lastScore;
+                maxId = new ObjectId(Objects.requireNonNull(last.getValue()));
+                tieOffset = 0;
+            }
+        }
+
+        if (page.size() > limit) {
+            return new ArrayList<>(page.subList(0, limit));
+        }
+        if (page.size() < limit && exhausted && isTruncated(key)) {
+            Instant fallbackCreatedAt = page.isEmpty() ? cursorCreatedAt : page.getLast().getCreatedAt();
+            ObjectId fallbackId = page.isEmpty() ? cursorId : page.getLast().getId();
+            page.addAll(momentRepository.findFeedsKeyset(
+                    requesterId, fallbackCreatedAt, fallbackId, false, limit - page.size()));
+        }
+        return page;
+    }
+
+    /**
+     * Pushes a moment onto the timelines of the given audience.
+     *
+     * @param momentId         the moment to push
+     * @param createdAt        its creation time, used as score
+     * @param audience         the users whose timelines receive the moment
+     * @param replacedMomentId an entry to remove at the same time (e.g. the previous latest moment of a story), or {@code null}
+     */
+    public void push(ObjectId momentId, Instant createdAt, Collection<UUID> audience, ObjectId replacedMomentId) {
+        if (audience.isEmpty()) {
+            return;
+        }
+        String member = momentId.toHexString();
+        double score = createdAt.toEpochMilli();
+        long ttlSeconds = properties.getTtl().toSeconds();
+        long trimStop = -(long) properties.getCapacity() - 1;
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (UUID userId : audience) {
+                String key = timelineKey(userId);
+                conn.zAdd(key, score, member);
+                if (replacedMomentId != null) {
+                    conn.zRem(key, replacedMomentId.toHexString());
+                }
+                conn.zRemRange(key, 0, trimStop);
+                conn.expire(key, ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Removes a moment from the timelines of the given users.
+     */
+    public void remove(ObjectId momentId, Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String member = momentId.toHexString();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            userIds.forEach(userId -> conn.zRem(timelineKey(userId), member));
+            return null;
+        });
+    }
+
+    /**
+     * Records that the author's audience is too large to fan out and switches its readers to pull mode.
+     */
+    public void markPullAuthor(UUID authorId, Collection<UUID> audience) {
+        long ttlSeconds = properties.getTtl().toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.sAdd(PULL_AUTHORS_KEY, authorId.toString());
+            audience.forEach(userId -> conn.setEx(pullModeKey(userId), ttlSeconds, "1"));
+            return null;
+        });
+    }
+
+    /**
+     * Drops the timeline of a user whose connections changed and queues it for a background rebuild.
+     */
+    public void invalidate(UUID userId) {
+        redisTemplate.delete(List.of(timelineKey(userId), warmKey(userId), pullModeKey(userId)));
+        redisTemplate.opsForSet().add(REBUILD_QUEUE_KEY, userId.toString());
+    }
+
+    /**
+     * Pops up to {@code count} users waiting for a timeline rebuild.
+     */
+    public List<UUID> pollRebuildQueue(int count) {
+        List<String> userIds = redisTemplate.opsForSet().pop(REBUILD_QUEUE_KEY, count);
+        if (userIds == null) {
+            return List.of();
+        }
+        return userIds.stream().map(UUID::fromString).toList();
+    }
+
+    /**
+     * Rebuilds the timeline of a user from the pull query and marks it warm.
+     *
+     * <p>Existing entries are kept (the rebuild only adds), so moments pushed concurrently are not lost.</p>
+     */
+    public void rebuild(UUID userId) {
+        int capacity = properties.getCapacity();
+        long ttlSeconds = properties.getTtl().toSeconds();
+        List<Moment> moments = momentRepository.findFeedsKeyset(userId, null, null, false, capacity);
+        boolean pullMode = followsPullAuthor(userId);
+        String key = timelineKey(userId);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Moment moment : moments) {
+                conn.zAdd(key, moment.getCreatedAt().toEpochMilli(), moment.getId().toHexString());
+            }
+            conn.zRemRange(key, 0, -(long) capacity - 1);
+            conn.expire(key, ttlSeconds);
+            conn.setEx(warmKey(userId), ttlSeconds, "1");
+            if (pullMode) {
+                conn.setEx(pullModeKey(userId), ttlSeconds, "1");
+            }
+            return null;
+        });
+        log.debug("Rebuilt home timeline for user {} with {} entries", userId, moments.size());
+    }
+
+    public boolean isWarm(UUID userId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(warmKey(userId)));
+    }
+
+    private boolean followsPullAuthor(UUID userId) {
+        Set<String> pullAuthors = redisTemplate.opsForSet().members(PULL_AUTHORS_KEY);
+        if (pullAuthors == null || pullAuthors.isEmpty()) {
+            return false;
+        }
+        if (pullAuthors.contains(userId.toString())) {
+            return true;
+        }
+        Set<UUID> candidateIds = pullAuthors.stream().map(UUID::fromString).collect(Collectors.toSet());
+        return !connectionAdjacencyCache.filterConnected(userId, candidateIds).isEmpty();
+    }
+
+    private List<Moment> loadLiveMoments(String key, List<ObjectId> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<ObjectId, Moment> byId = momentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Moment::getId, Function.identity()));
+
+        List<Moment> live = new ArrayList<>(ids.size());
+        List<String> stale = new ArrayList<>();
+        for (ObjectId id : ids) {
+            Moment moment = byId.get(id);
+            if (moment == null || moment.getDeletedAt() != null) {
+                stale.add(id.toHexString());
+            } else {
+                live.add(moment);
+            }
+        }
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForZSet().remove(key, stale.toArray());
+        }
+        return live;
+    }
+
+    private boolean isTruncated(String key) {
+        Long size = redisTemplate.opsForZSet().zCard(key);
+        return size != null && size >= properties.getCapacity();
+    }
+
+    /**
+     * Members sharing a score are ordered by their hex id, which matches {@link ObjectId} ordering,
+     * so the {@code (createdAt, id)} keyset can be applied on the raw tuples.
+     */
+    private boolean isBeforeCursor(ZSetOperations.TypedTuple<String> tuple, double maxScore, ObjectId maxId) {
+        if (tuple.getScore() == null || tuple.getScore() < maxScore) {
+            return true;
+        }
+        return maxId == null || new ObjectId(Objects.requireNonNull(tuple.getValue())).compareTo(maxId) < 0;
+    }
+
+    private String timelineKey(UUID userId) {
+        return TIMELINE_KEY_PREFIX + userId;
+    }
+
+    private String warmKey(UUID userId) {
+        return WARM_KEY_PREFIX + userId;
+    }
+
+    private String pullModeKey(UUID userId) {
+        return PULL_MODE_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,162 @@
+package com.muicochay.mory.moment.service;
+
+import com.muicochay.mory.moment.document.Moment;
+import com.muicochay.mory.moment.document.MomentReaction;
+import com.muicochay.mory.moment.dto.MomentResponse;
+import com.muicochay.mory.moment.dto.ReactionPreviewDto;
+import com.muicochay.mory.moment.mapper.MomentMapper;
+import com.muicochay.mory.story.entity.Story;
+import com.muicochay.mory.story.repository.StoryRepository;
+import com.muicochay.mory.user.cache.UserPreviewCache;
+import com.muicochay.mory.user.dto.UserPreviewResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a page of {@link Moment}s into {@link MomentResponse}s.
+ *
+ * <p>Stories (Postgres) and reaction previews (Mongo) do not depend on each other and are loaded
+ * concurrently on virtual threads; authors and reactors are then resolved with a single {@link UserPreviewCache} lookup.
+ * Each stage is timed under {@code moment.hydration} with a {@code stage} tag.</p>
+ *
+ * <p>The lookups run outside the caller's transaction, so only eagerly fetched data is read from the
+ * returned entities.</p>
+ *
+ * <p>Every given moment produces exactly one response, in order, so the caller's page size and cursor stay valid;
+ * a moment whose author profile cannot be found keeps a placeholder author carrying only the user id.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MomentHydrator {
+
+    private static final int REACTION_PREVIEW_SIZE = 3;
+    private static final String METRIC_NAME = "moment.hydration";
+
+    private final StoryRepository storyRepository;
+    private final MomentReactionService momentReactionService;
+    private final UserPreviewCache userPreviewCache;
+    private final MomentMapper momentMapper;
+    private final ExecutorService hydrationExecutor;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Hydrates a page of moments in the order they were given.
+     *
+     * @param moments        the moments of the page
+     * @param requesterId    the user reading the page; reaction previews are only filled on their own moments
+     * @param includeStories whether to attach the story summary of story moments
+     */
+    public List<MomentResponse> hydrate(List<Moment> moments, UUID requesterId, boolean includeStories) {
+        if (moments.isEmpty()) {
+            return List.of();
+        }
+        Timer.Sample total = Timer.start(meterRegistry);
+
+        List<ObjectId> momentIds = moments.stream().map(Moment::getId).toList();
+        List<UUID> storyIds = includeStories
+                ? moments.stream().map(Moment::getStoryId).filter(Objects::nonNull).distinct().toList()
+                : List.of();
+
+        CompletableFuture<Map<UUID, Story>> storiesFuture = storyIds.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : supplyTimed("stories", () -> storyRepository.findAllById(storyIds).stream()
+                        .collect(Collectors.toMap(Story::getId, Function.identity())));
+
+        CompletableFuture<Map<ObjectId, MomentReaction>> reactionsFuture = supplyTimed("reactions", () ->
+                momentReactionService.getReactionPreviewsForMoments(momentIds, requesterId).stream()
+                        .collect(Collectors.toMap(MomentReaction::getMomentId, Function.identity())));
+
+        Map<ObjectId, MomentReaction> reactionMap = await(reactionsFuture);
+
+        Set<UUID> profileIds = new HashSet<>();
+        for (Moment moment : moments) {
+            profileIds.add(moment.getUserId());
+            MomentReaction reaction = reactionMap.get(moment.getId());
+            if (reaction != null && requesterId.equals(moment.getUserId())) {
+                profileIds.addAll(reaction.getLatestReactorIds(REACTION_PREVIEW_SIZE));
+            }
+        }
+        Map<UUID, UserPreviewResponse> previews = timed("profiles", () -> userPreviewCache.getAll(profileIds));
+        Map<UUID, Story> storyMap = await(storiesFuture);
+
+        List<MomentResponse> responses = new ArrayList<>(moments.size());
+        for (Moment moment : moments) {
+            UserPreviewResponse author = previews.get(moment.getUserId());
+            if (author == null) {
+                log.warn("No profile found for author {} of moment {}", moment.getUserId(), moment.getId());
+                author = UserPreviewResponse.builder().id(moment.getUserId()).build();
+            }
+            MomentResponse response = momentMapper.toResponse(moment, author, storyMap.get(moment.getStoryId()));
+            applyReactions(response, moment, reactionMap.get(moment.getId()), requesterId, previews);
+            responses.add(response);
+        }
+
+        total.stop(meterRegistry.timer(METRIC_NAME, "stage", "total"));
+        return responses;
+    }
+
+    private void applyReactions(
+            MomentResponse response,
+            Moment moment,
+            MomentReaction reaction,
+            UUID requesterId,
+            Map<UUID, UserPreviewResponse> previews
+    ) {
+        if (!requesterId.equals(moment.getUserId())) {
+            response.setTotalReactions(0);
+            response.setReactionPreviews(Collections.emptyList());
+            response.setMyReaction(reaction != null && reaction.getUserReactions() != null
+                    ? reaction.getUserReactions().get(requesterId)
+                    : null);
+            return;
+        }
+
+        response.setMyReaction(null);
+        if (reaction == null) {
+            response.setTotalReactions(0);
+            response.setReactionPreviews(Collections.emptyList());
+            return;
+        }
+        response.setTotalReactions(reaction.getTotalReactions());
+        response.setReactionPreviews(reaction.getLatestReactorIds(REACTION_PREVIEW_SIZE).stream()
+                .map(previews::get)
+                .filter(Objects::nonNull)
+                .map(user -> ReactionPreviewDto.builder()
+                        .user(user)
+                        .reactionType(reaction.getRecentReactionOf(user.getId()))
+                        .build())
+                .toList());
+    }
+
+    private <T> CompletableFuture<T> supplyTimed(String stage, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> timed(stage, supplier), hydrationExecutor);
+    }
+
+    private <T> T timed(String stage, Supplier<T> supplier) {
+        return meterRegistry.timer(METRIC_NAME, "stage", stage).record(supplier);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -15,30 +15,13 @@ import java.util.*;
 public class MomentReactionService {
     private final MomentReactionRepository momentReactionRepository;
 
-    @Transactional
-    public MomentReaction toggleReaction(UUID userId, ObjectId momentId, ReactionType reactionType) {
-        MomentReaction doc = momentReactionRepository.findByMomentId(momentId)
-                .orElseGet(() -> MomentReaction.builder()
-                        .momentId(momentId)
-                        .userReactions(new HashMap<>())
-                        .build()
-                );
-        Map<UUID, ReactionType> userReactions =
-                Optional.ofNullable(doc.getUserReactions()).orElseGet(HashMap::new);
-
-        ReactionType oldReaction = userReactions.get(userId);
-
-        if (oldReaction != null) {
-            if (oldReaction.equals(reactionType)) {
-                userReactions.remove(userId);
-            } else {
-                userReactions.put(userId, reactionType);
-            }
-        } else {
-            userReactions.put(userId, reactionType);
-        }
-        doc.setUserReactions(userReactions);
-        return momentReactionRepository.save(doc);
+    /**
+     * Toggles the reaction of a user with a single conditional Mongo update, without loading the document.
+     *
+     * @return the reaction of the user after the toggle, or {@code null} if it was removed
+     */
+    public ReactionType toggleReaction(UUID userId, ObjectId momentId, ReactionType reactionType) {
+        return momentReactionRepository.toggleReaction(momentId, userId, reactionType);
     }
 
     @Transactional(readOnly = true)
@@ -46,10 +29,14 @@ public class MomentReactionService {
         return momentReactionRepository.findByMomentId(momentId).orElse(null);
     }
 
+    /**
+     * Loads the reactions of a page of moments for feed hydration: counters, recent reactors and
+     * the requester's own reaction only, never the full reaction map.
+     */
     @Transactional(readOnly = true)
-    public List<MomentReaction> getReactionsForMoments(List<ObjectId> momentIds) {
+    public List<MomentReaction> getReactionPreviewsForMoments(List<ObjectId> momentIds, UUID requesterId) {
         if (momentIds == null || momentIds.isEmpty()) return Collections.emptyList();
-        return momentReactionRepository.findAllByMomentIdIn(momentIds);
+        return momentReactionRepository.findPreviewsByMomentIds(momentIds, requesterId);
     }
 
     @Transactional
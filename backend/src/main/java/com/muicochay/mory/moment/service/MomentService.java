@@ -1,13 +1,15 @@
 package com.muicochay.mory.moment.service;
 
-import com.muicochay.mory.connection.entity.Connection;
-import com.muicochay.mory.connection.enums.ConnectionStatus;
+import com.muicochay.mory.connection.cache.AccessDecisionCache;
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
 import com.muicochay.mory.connection.enums.ConnectionType;
-import com.muicochay.mory.connection.repository.ConnectionRepository;
-import com.muicochay.mory.connection.utils.ConnectionUtils;
 import com.muicochay.mory.moment.document.Moment;
 import com.muicochay.mory.moment.document.MomentReaction;
 import com.muicochay.mory.moment.dto.*;
+import com.muicochay.mory.moment.event.MomentCreatedEvent;
+import com.muicochay.mory.moment.event.MomentDeletedEvent;
+import com.muicochay.mory.moment.event.MomentVisibilityChangedEvent;
+import com.muicochay.mory.moment.mapper.MomentMapper;
 import com.muicochay.mory.moment.repository.MomentRepository;
 import com.muicochay.mory.shared.dto.UpdateVisibilityRequest;
 import com.muicochay.mory.shared.enums.ReactionType;
@@ -19,14 +21,15 @@ import com.muicochay.mory.shared.exception.global.ResourcesNotFoundEx;
 import com.muicochay.mory.story.entity.Story;
 import com.muicochay.mory.story.enums.StoryType;
 import com.muicochay.mory.story.repository.StoryRepository;
+import com.muicochay.mory.story.service.StoryStatsService;
+import com.muicochay.mory.user.cache.UserPreviewCache;
 import com.muicochay.mory.user.dto.UserPreviewResponse;
 import com.muicochay.mory.user.entity.User;
-import com.muicochay.mory.user.entity.UserProfile;
 import com.muicochay.mory.user.mapper.UserMapper;
-import com.muicochay.mory.user.repositoriy.UserProfileRepository;
 import com.muicochay.mory.user.repositoriy.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,12 +47,18 @@ public class MomentService {
     private final MomentRepository momentRepository;
 
     private final MomentReactionService momentReactionService;
+    private final HomeTimelineService homeTimelineService;
+    private final MomentHydrator momentHydrator;
 
-    private final ConnectionRepository connectionRepository;
+    private final AccessDecisionCache accessDecisionCache;
     private final StoryRepository storyRepository;
     private final UserRepository userRepository;
-    private final UserProfileRepository userProfileRepository;
+    private final UserPreviewCache userPreviewCache;
     private final UserMapper userMapper;
+    private final MomentMapper momentMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StoryStatsService storyStatsService;
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
 
 
     @Transactional
@@ -62,6 +71,8 @@ public class MomentService {
 
         Moment moment = buildStandaloneMoment(user, request);
         momentRepository.save(moment);
+        eventPublisher.publishEvent(new MomentCreatedEvent(
+                moment.getId(), userId, null, moment.getVisibility(), moment.getCreatedAt(), null));
 
         return toResponse(moment, user, null);
     }
@@ -94,8 +105,10 @@ public class MomentService {
             case ALBUM        -> buildAlbumMoment(user, story, request);
         };
         momentRepository.save(moment);
-        story.setLatestMomentId(moment.getId());
-        story.setLatestMomentCreatedAt(moment.getCreatedAt());
+        ObjectId replacedMomentId = story.getLatestMomentId();
+        storyStatsService.momentAdded(storyId, moment);
+        eventPublisher.publishEvent(new MomentCreatedEvent(
+                moment.getId(), userId, storyId, moment.getVisibility(), moment.getCreatedAt(), replacedMomentId));
         return toResponse(moment, user, story);
     }
 
@@ -126,9 +139,7 @@ public class MomentService {
 
         if (newIds.isEmpty()) return;
 
-        Set<UUID> allowedIds = connectionRepository.findConnectedUserIds(
-                creatorId, newIds, List.of(ConnectionStatus.CONNECTED)
-        );
+        Set<UUID> allowedIds = connectionAdjacencyCache.filterConnected(creatorId, newIds);
         allowedIds.forEach(userId -> moment.getTags().add(userId));
     }
 
@@ -254,14 +265,24 @@ public class MomentService {
             throw new ResourcesAccessDeniedEx("You cannot delete someone else's moment");
         }
 
+        Story story = null;
         if (moment.getStoryId() != null) {
-            Story story = storyRepository.findById(moment.getStoryId())
+            story = storyRepository.findById(moment.getStoryId())
                     .orElseThrow(() -> new ResourcesNotFoundEx("Story not found with Id: " + moment.getStoryId()));
             if (story.getType() == StoryType.BEFORE_AFTER) throw new ResourcesAccessDeniedEx("Cannot delete moment in BEFORE/AFTER story.");
         }
 
         moment.setDeletedAt(Instant.now());
         momentRepository.save(moment);
+        if (story != null) {
+            boolean wasLatest = moment.getId().equals(story.getLatestMomentId());
+            storyStatsService.momentRemoved(story, moment);
+            if (wasLatest) {
+                momentRepository.findLatestMomentByStoryId(story.getId())
+                        .ifPresent(previous -> eventPublisher.publishEvent(new MomentDeletedEvent(
+                                moment.getId(), userId, moment.getStoryId(), previous.getId(), previous.getCreatedAt())));
+            }
+        }
     }
 
     @Transactional
@@ -307,6 +328,8 @@ public class MomentService {
 
         moment.setVisibility(request.getVisibility());
         momentRepository.save(moment);
+        eventPublisher.publishEvent(new MomentVisibilityChangedEvent(
+                moment.getId(), userId, moment.getVisibility(), moment.getCreatedAt()));
 
         return MomentResponse.builder()
                 .visibility(moment.getVisibility())
@@ -357,13 +380,11 @@ public class MomentService {
         if (requesterId.equals(userId)) {
             moments = momentRepository.findMomentsKeyset(userId, cursorCreatedAt, cursorId, asc,size + 1);
         } else {
-            UUID connectionId = ConnectionUtils.generateConnectionId(requesterId, userId);
-            Connection connection = connectionRepository.findById(connectionId)
-                    .orElseThrow(() -> new ResourcesAccessDeniedEx("Connection not found or you do not have access"));
-            if (connection.getConnectionType() == ConnectionType.NO_RELATION || connection.getStatus() != ConnectionStatus.CONNECTED) {
+            ConnectionType connectionType = connectionAdjacencyCache.typeOf(requesterId, userId);
+            if (connectionType == null || connectionType == ConnectionType.NO_RELATION) {
                 throw new ResourcesAccessDeniedEx("Connection not found or you do not have access");
             }
-            List<Visibility> allowedVisibilities = connection.getConnectionType().getAllowedVisibilities();
+            List<Visibility> allowedVisibilities = connectionType.getAllowedVisibilities();
             moments = momentRepository.findVisibleMomentsKeyset(
                     userId,
                     requesterId,
@@ -380,99 +401,8 @@ public class MomentService {
         Instant nextCursorCreatedAt = hasNext ? moments.getLast().getCreatedAt() : null;
         ObjectId nextCursorId = hasNext ? moments.getLast().getId() : null;
 
-        List<UUID> storyIds = moments.stream()
-                .map(Moment::getStoryId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        List<Story> stories = storyRepository.findAllById(storyIds);
-        Map<UUID, Story> storyMap = stories.stream()
-                .collect(Collectors.toMap(Story::getId, story -> story));
-
-        User user = userRepository.findWithProfileById(userId)
-                .orElseThrow(() -> new ResourcesNotFoundEx("User not found with id: " + userId));
-
-        List<MomentResponse> responses = moments.stream()
-                .map(m -> toResponse(
-                        m,
-                        user,
-                        storyMap.get(m.getStoryId())
-                ))
-                .toList();
-
-        List<ObjectId> momentIdsForReaction = responses.stream()
-                .map(m -> new ObjectId(m.getId()))
-                .toList();
-
-        List<MomentReaction> reactions = momentReactionService.getReactionsForMoments(momentIdsForReaction);
-
-        Map<ObjectId, MomentReaction> reactionMap = reactions.stream()
-                .collect(Collectors.toMap(MomentReaction::getMomentId, r -> r));
-
-        Map<ObjectId, ReactionType> myReactionMap = new HashMap<>();
-        for (MomentReaction r : reactions) {
-            ReactionType myReaction = r.getUserReactions() != null ? r.getUserReactions().get(requesterId) : null;
-            if (myReaction != null) {
-                myReactionMap.put(r.getMomentId(), myReaction);
-            }
-        }
+        List<MomentResponse> responses = momentHydrator.hydrate(moments, requesterId, true);
 
-        Set<UUID> allUserIds = new HashSet<>();
-        Map<ObjectId, List<UUID>> momentIdToUserIds = new HashMap<>();
-
-        for (MomentReaction reaction : reactions) {
-            List<UUID> userReactionIds = reaction.getUserReactions().keySet().stream()
-                    .limit(3)
-                    .toList();
-            momentIdToUserIds.put(reaction.getMomentId(), userReactionIds);
-            allUserIds.addAll(userReactionIds);
-        }
-
-
-        List<UserProfile> profiles = userProfileRepository.findAllByUserIds(new ArrayList<>(allUserIds));
-
-        Map<UUID, UserPreviewResponse> userPreviewMap = profiles.stream()
-                .collect(Collectors.toMap(
-                        p -> p.getUser().getId(),
-                        p -> UserPreviewResponse.builder()
-                                .id(p.getUser().getId())
-                                .displayName(p.getDisplayName())
-                                .avatarUrl(p.getAvatarUrl())
-                                .build()
-                ));
-
-
-        responses.forEach(response -> {
-            ObjectId momentId = new ObjectId(response.getId());
-
-            if (response.getUser().getId().equals(requesterId)) {
-                MomentReaction doc = reactionMap.get(momentId);
-                if (doc != null) {
-                    response.setTotalReactions(doc.getTotalReactions());
-
-                    List<UUID> userIdsForReaction = momentIdToUserIds.getOrDefault(momentId, List.of());
-                    List<ReactionPreviewDto> previews = userIdsForReaction.stream()
-                            .map(userPreviewMap::get)
-                            .filter(Objects::nonNull)
-                            .map(userPreview -> ReactionPreviewDto.builder()
-                                    .user(userPreview)
-                                    .reactionType(doc.getUserReactions().get(userPreview.getId()))
-                                    .build())
-                            .toList();
-
-                    response.setReactionPreviews(previews);
-                } else {
-                    response.setTotalReactions(0);
-                    response.setReactionPreviews(Collections.emptyList());
-                }
-                response.setMyReaction(null);
-            } else {
-                response.setTotalReactions(0);
-                response.setReactionPreviews(Collections.emptyList());
-
-                response.setMyReaction(myReactionMap.get(momentId));
-            }
-        });
         return MomentPageResponse.builder()
                 .moments(responses)
                 .hasNext(hasNext)
@@ -491,124 +421,21 @@ public class MomentService {
             UUID targetUserId
     ) {
         boolean asc = "ASC".equalsIgnoreCase(order);
-        List<Moment> moments = targetUserId == null
-                ? momentRepository.findFeedsKeyset(
-                    requesterId, cursorCreatedAt, cursorId, asc, size + 1)
-                : momentRepository.findFeedsByTargetUserKeyset(requesterId, targetUserId, cursorCreatedAt, cursorId, asc, size + 1);
+        List<Moment> moments;
+        if (targetUserId != null) {
+            moments = momentRepository.findFeedsByTargetUserKeyset(requesterId, targetUserId, cursorCreatedAt, cursorId, asc, size + 1);
+        } else if (asc) {
+            moments = momentRepository.findFeedsKeyset(requesterId, cursorCreatedAt, cursorId, true, size + 1);
+        } else {
+            moments = homeTimelineService.findFeedKeyset(requesterId, cursorCreatedAt, cursorId, size + 1);
+        }
 
         boolean hasNext = moments.size() > size;
         if (hasNext) moments = moments.subList(0, size);
         Instant nextCursorCreatedAt = hasNext ? moments.getLast().getCreatedAt() : null;
         ObjectId nextCursorId = hasNext ? moments.getLast().getId() : null;
 
-        List<UUID> storyIds = moments.stream()
-                .map(Moment::getStoryId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        List<Story> stories = storyRepository.findAllById(storyIds);
-        Map<UUID, Story> storyMap = stories.stream()
-                .collect(Collectors.toMap(Story::getId, story -> story));
-
-        List<UUID> userIds = moments.stream()
-                .map(Moment::getUserId)
-                .toList();
-
-        List<User> users = userRepository.findAllWithProfileByIds(userIds);
-        Map<UUID, User> userMap = users.stream()
-                .collect(Collectors.toMap(User::getId, user -> user));
-
-
-        List<MomentResponse> responses = moments.stream()
-                .map(m -> toResponse(
-                        m,
-                        userMap.get(m.getUserId()),
-                        storyMap.get(m.getStoryId())
-                ))
-                .toList();
-        Map<ObjectId, UUID> momentIdToOwnerId = moments.stream()
-                .collect(Collectors.toMap(Moment::getId, Moment::getUserId));
-
-        // Lấy reactions 1 lần cho tất cả moment
-        List<ObjectId> allMomentIds = moments.stream().map(Moment::getId).toList();
-
-        List<MomentReaction> allReactions = allMomentIds.isEmpty()
-                ? List.of()
-                : momentReactionService.getReactionsForMoments(allMomentIds);
-
-        Map<ObjectId, MomentReaction> reactionMap = allReactions.stream()
-                .collect(Collectors.toMap(MomentReaction::getMomentId, r -> r));
-
-        Map<ObjectId, ReactionType> myReactionMap = new HashMap<>();
-        Set<UUID> allUserIds = new HashSet<>();
-        Map<ObjectId, List<UUID>> momentIdToUserIds = new HashMap<>();
-
-        for (MomentReaction reaction : allReactions) {
-            ObjectId momentId = reaction.getMomentId();
-            UUID ownerId = momentIdToOwnerId.get(momentId);
-
-            if (reaction.getUserReactions() != null) {
-                ReactionType myReaction = reaction.getUserReactions().get(requesterId);
-                if (myReaction != null) {
-                    myReactionMap.put(momentId, myReaction);
-                }
-
-                if (ownerId != null && ownerId.equals(requesterId)) {
-                    List<UUID> userReactionIds = reaction.getUserReactions().keySet().stream()
-                            .limit(3)
-                            .toList();
-                    momentIdToUserIds.put(momentId, userReactionIds);
-                    allUserIds.addAll(userReactionIds);
-                }
-            }
-        }
-
-        List<UserProfile> profiles = allUserIds.isEmpty()
-                ? List.of()
-                : userProfileRepository.findAllByUserIds(new ArrayList<>(allUserIds));
-
-        Map<UUID, UserPreviewResponse> userPreviewMap = profiles.stream()
-                .collect(Collectors.toMap(
-                        p -> p.getUser().getId(),
-                        p -> UserPreviewResponse.builder()
-                                .id(p.getUser().getId())
-                                .displayName(p.getDisplayName())
-                                .avatarUrl(p.getAvatarUrl())
-                                .build()
-                ));
-
-        // Gán dữ liệu cho response
-        responses.forEach(response -> {
-            ObjectId momentId = new ObjectId(response.getId());
-
-            if (response.getUser().getId().equals(requesterId)) {
-                MomentReaction doc = reactionMap.get(momentId);
-                if (doc != null) {
-                    response.setTotalReactions(doc.getTotalReactions());
-
-                    List<UUID> userIdsForReaction = momentIdToUserIds.getOrDefault(momentId, List.of());
-                    List<ReactionPreviewDto> previews = userIdsForReaction.stream()
-                            .map(userPreviewMap::get)
-                            .filter(Objects::nonNull)
-                            .map(userPreview -> ReactionPreviewDto.builder()
-                                    .user(userPreview)
-                                    .reactionType(doc.getUserReactions().get(userPreview.getId()))
-                                    .build())
-                            .toList();
-
-                    response.setReactionPreviews(previews);
-                } else {
-                    response.setTotalReactions(0);
-                    response.setReactionPreviews(Collections.emptyList());
-                }
-                response.setMyReaction(null);
-            } else {
-                response.setTotalReactions(0);
-                response.setReactionPreviews(Collections.emptyList());
-
-                response.setMyReaction(myReactionMap.get(momentId));
-            }
-        });
+        List<MomentResponse> responses = momentHydrator.hydrate(moments, requesterId, true);
 
         return MomentPageResponse.builder()
                 .moments(responses)
@@ -640,16 +467,7 @@ public class MomentService {
                     Stream.of(story.getCreator().getId())
             ).toList();
 
-            List<UUID> connectionIds = relatedUserIds.stream()
-                    .map(userId -> ConnectionUtils.generateConnectionId(requesterId, userId))
-                    .toList();
-
-            boolean hasConnection = connectionRepository.existsAnyConnectionByIds(
-                    connectionIds,
-                    List.of(ConnectionStatus.CONNECTED.name())
-            );
-
-            if (!hasConnection) {
+            if (!accessDecisionCache.canViewStory(requesterId, storyId, relatedUserIds)) {
                 throw new ResourcesAccessDeniedEx("You do not have access to this story's moments");
             }
         }
@@ -663,110 +481,7 @@ public class MomentService {
         Instant nextCursorCreatedAt = hasNext ? moments.getLast().getCreatedAt() : null;
         ObjectId nextCursorId = hasNext ? moments.getLast().getId() : null;
 
-        List<UUID> storyIds = moments.stream()
-                .map(Moment::getStoryId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        List<UUID> userIds = moments.stream()
-                .map(Moment::getUserId)
-                .toList();
-
-        List<User> users = userRepository.findAllWithProfileByIds(userIds);
-        Map<UUID, User> userMap = users.stream()
-                .collect(Collectors.toMap(User::getId, user -> user));
-
-
-        List<MomentResponse> responses = moments.stream()
-                .map(m -> toResponse(
-                        m,
-                        userMap.get(m.getUserId()),
-                        null
-                ))
-                .toList();
-
-        Map<ObjectId, UUID> momentIdToOwnerId = responses.stream()
-                .collect(Collectors.toMap(r -> new ObjectId(r.getId()), r -> r.getUser().getId()));
-
-        // Lấy reactions 1 lần cho tất cả moment
-        List<ObjectId> allMomentIds = responses.stream().map(m -> new ObjectId(m.getId())).toList();
-        List<MomentReaction> allReactions = allMomentIds.isEmpty()
-                ? List.of()
-                : momentReactionService.getReactionsForMoments(allMomentIds);
-
-        Map<ObjectId, MomentReaction> reactionMap = allReactions.stream()
-                .collect(Collectors.toMap(MomentReaction::getMomentId, r -> r));
-
-        Map<ObjectId, ReactionType> myReactionMap = new HashMap<>();
-        Set<UUID> allUserIds = new HashSet<>();
-        Map<ObjectId, List<UUID>> momentIdToUserIds = new HashMap<>();
-
-        for (MomentReaction reaction : allReactions) {
-            ObjectId momentId = reaction.getMomentId();
-            UUID ownerId = momentIdToOwnerId.get(momentId);
-
-            if (reaction.getUserReactions() != null) {
-                ReactionType myReaction = reaction.getUserReactions().get(requesterId);
-                if (myReaction != null) {
-                    myReactionMap.put(momentId, myReaction);
-                }
-
-                if (ownerId != null && ownerId.equals(requesterId)) {
-                    List<UUID> userReactionIds = reaction.getUserReactions().keySet().stream()
-                            .limit(3)
-                            .toList();
-                    momentIdToUserIds.put(momentId, userReactionIds);
-                    allUserIds.addAll(userReactionIds);
-                }
-            }
-        }
-
-        List<UserProfile> profiles = allUserIds.isEmpty()
-                ? List.of()
-                : userProfileRepository.findAllByUserIds(new ArrayList<>(allUserIds));
-
-        Map<UUID, UserPreviewResponse> userPreviewMap = profiles.stream()
-                .collect(Collectors.toMap(
-                        p -> p.getUser().getId(),
-                        p -> UserPreviewResponse.builder()
-                                .id(p.getUser().getId())
-                                .displayName(p.getDisplayName())
-                                .avatarUrl(p.getAvatarUrl())
-                                .build()
-                ));
-
-        // Gán dữ liệu cho response
-        responses.forEach(response -> {
-            ObjectId momentId = new ObjectId(response.getId());
-
-            if (response.getUser().getId().equals(requesterId)) {
-                MomentReaction doc = reactionMap.get(momentId);
-                if (doc != null) {
-                    response.setTotalReactions(doc.getTotalReactions());
-
-                    List<UUID> userIdsForReaction = momentIdToUserIds.getOrDefault(momentId, List.of());
-                    List<ReactionPreviewDto> previews = userIdsForReaction.stream()
-                            .map(userPreviewMap::get)
-                            .filter(Objects::nonNull)
-                            .map(userPreview -> ReactionPreviewDto.builder()
-                                    .user(userPreview)
-                                    .reactionType(doc.getUserReactions().get(userPreview.getId()))
-                                    .build())
-                            .toList();
-
-                    response.setReactionPreviews(previews);
-                } else {
-                    response.setTotalReactions(0);
-                    response.setReactionPreviews(Collections.emptyList());
-                }
-                response.setMyReaction(null);
-            } else {
-                response.setTotalReactions(0);
-                response.setReactionPreviews(Collections.emptyList());
-
-                response.setMyReaction(myReactionMap.get(momentId));
-            }
-        });
+        List<MomentResponse> responses = momentHydrator.hydrate(moments, requesterId, false);
 
         return MomentPageResponse.builder()
                 .moments(responses)
@@ -785,16 +500,12 @@ public class MomentService {
             throw new InvalidResourceStateEx("You cannot react to your own moment");
         }
 
-        UUID connectionId = ConnectionUtils.generateConnectionId(moment.getUserId(), userId);
-        Connection connection = connectionRepository.findById(connectionId)
-                .orElseThrow(() -> new ResourcesAccessDeniedEx("Access denied: no connection found"));
-        if (connection.getConnectionType() == ConnectionType.NO_RELATION || connection.getStatus() != ConnectionStatus.CONNECTED) {
+        ConnectionType connectionType = connectionAdjacencyCache.typeOf(userId, moment.getUserId());
+        if (connectionType == null || connectionType == ConnectionType.NO_RELATION) {
             throw new ResourcesAccessDeniedEx("Access denied: no connection found");
         }
 
-        MomentReaction updated = momentReactionService.toggleReaction(userId, momentId, reactionType);
-
-        ReactionType userReaction = updated.getUserReactions().get(userId);
+        ReactionType userReaction = momentReactionService.toggleReaction(userId, momentId, reactionType);
 
         return MomentReactionDto.builder()
                 .momentId(momentId)
@@ -821,17 +532,7 @@ public class MomentService {
         List<UUID> userIds = new ArrayList<>(reactions.getUserReactions().keySet());
 
         // Query lấy thông tin profile của họ
-        List<UserProfile> profiles = userProfileRepository.findAllByUserIds(userIds);
-
-        Map<UUID, UserPreviewResponse> userPreviewMap = profiles.stream()
-                .collect(Collectors.toMap(
-                        p -> p.getUser().getId(),
-                        p -> UserPreviewResponse.builder()
-                                .id(p.getUser().getId())
-                                .displayName(p.getDisplayName())
-                                .avatarUrl(p.getAvatarUrl())
-                                .build()
-                ));
+        Map<UUID, UserPreviewResponse> userPreviewMap = userPreviewCache.getAll(userIds);
 
         List<ReactionPreviewDto> previews = userIds.stream()
                 .map(uid -> {
@@ -854,32 +555,6 @@ public class MomentService {
 
 
     private MomentResponse toResponse(Moment moment, User user, Story story) {
-        MomentStoryDto storyDto = story != null
-                ? MomentStoryDto.builder()
-                .id(story.getId())
-                .type(story.getType())
-                .scope(story.getScope())
-                .title(story.getTitle())
-                .duration(story.getDuration())
-                .build()
-                : null;
-
-        UserPreviewResponse userDto = userMapper.toProfilePreview(user);
-
-        return MomentResponse.builder()
-                .id(moment.getId().toHexString())
-                .story(storyDto)
-                .user(userDto)
-                .mediaUrl(moment.getMediaUrl())
-                .audioUrl(moment.getAudioUrl())
-                .visibility(moment.getVisibility())
-                .caption(moment.getCaption())
-                .position(moment.getPosition())
-                .dayIndex(moment.getDayIndex())
-                .createdAt(moment.getCreatedAt())
-                .lastModifiedAt(moment.getLastModifiedAt())
-                .tags(Collections.emptyList())
-                .milestone(moment.isMilestone())
-                .build();
+        return momentMapper.toResponse(moment, userMapper.toProfilePreview(user), story);
     }
 }
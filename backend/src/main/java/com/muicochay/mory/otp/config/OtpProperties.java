@@ -14,4 +14,6 @@ import java.util.Map;
 @ConfigurationProperties(prefix = "otp")
 public class OtpProperties {
     private Map<OtpType, Integer> ttlSeconds = new EnumMap<>(OtpType.class);
+    private String hmacKey;
+    private int maxAttempts = 5;
 }
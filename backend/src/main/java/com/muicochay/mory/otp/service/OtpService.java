@@ -2,22 +2,30 @@ package com.muicochay.mory.otp.service;
 
 import com.muicochay.mory.otp.config.OtpProperties;
 import com.muicochay.mory.otp.enums.OtpType;
+import com.muicochay.mory.shared.exception.otp.OtpAttemptsExceededEx;
 import com.muicochay.mory.shared.exception.otp.OtpExpiredEx;
 import com.muicochay.mory.shared.exception.otp.OtpInvalidEx;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Service for generating, storing, and verifying OTP codes.
  * <p>
- * OTPs are hashed and stored in Redis with an expiration time.
+ * OTPs are stored in Redis as an HMAC-SHA256 under a server key, with an expiration time and a count of
+ * failed attempts. A 6-digit code has only 10^6 values, so a slow hash like BCrypt adds CPU cost without
+ * adding security; the secret key and the attempt limit are what protect it.
  * </p>
  */
 @Service
@@ -26,8 +34,58 @@ public class OtpService {
     private final StringRedisTemplate redisTemplate;
     private final OtpProperties otpProperties;
 
-    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-    private static final Random random = new Random();
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final long MISMATCH = 0L;
+    private static final long EXPIRED = -1L;
+    private static final long LOCKED = -2L;
+    // Khác prefix "otp:" cũ (giá trị string) để HGET không gặp WRONGTYPE trên OTP tạo trước khi đổi sang hash
+    private static final String KEY_PREFIX = "otp::code:";
+
+    // KEYS: otpKey | ARGV: hmac, ttlSeconds
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0)
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS: otpKey | ARGV: hmac, maxAttempts
+    // So sánh constant-time trên hai HMAC hex cùng độ dài, OTP bị xoá khi đúng hoặc khi hết lượt thử
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>("""
+            local stored = redis.call('HGET', KEYS[1], 'code')
+            if not stored then
+                return -1
+            end
+            local input = ARGV[1]
+            local diff = 0
+            if #stored ~= #input then
+                diff = 1
+            end
+            for i = 1, #stored do
+                diff = bit.bor(diff, bit.bxor(string.byte(stored, i), string.byte(input, i) or 0))
+            end
+            if diff == 0 then
+                redis.call('DEL', KEYS[1])
+                return 1
+            end
+            local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            if attempts >= tonumber(ARGV[2]) then
+                redis.call('DEL', KEYS[1])
+                return -2
+            end
+            return 0
+            """, Long.class);
+
+    private HmacUtils hmac;
+
+    @PostConstruct
+    void init() {
+        if (otpProperties.getHmacKey() == null || otpProperties.getHmacKey().isBlank()) {
+            throw new IllegalStateException("otp.hmac-key must be configured");
+        }
+        hmac = new HmacUtils(HmacAlgorithms.HMAC_SHA_256, otpProperties.getHmacKey().getBytes(StandardCharsets.UTF_8));
+    }
 
     /**
      * Generate a hashed Redis key to store the OTP using the type and user ID.
@@ -38,12 +96,21 @@ public class OtpService {
      */
     private String otpKey(OtpType type, UUID userId) {
         String rawKey = type.name().toLowerCase() + ":" + userId;
-        return "otp:" + DigestUtils.sha256Hex(rawKey);
+        return KEY_PREFIX + DigestUtils.sha256Hex(rawKey);
     }
 
+    /**
+     * HMAC of the code, bound to the Redis key so a value cannot be replayed for another user or type.
+     */
+    private String otpHmac(String key, String otp) {
+        return hmac.hmacHex(key + ":" + otp);
+    }
 
     /**
      * Generate a new OTP code for a user, hash it, and store it in Redis.
+     * <p>
+     * A previous OTP of the same type and its failed attempts are replaced.
+     * </p>
      *
      * @param type   the type of OTP
      * @param userId the ID of the user
@@ -53,41 +120,40 @@ public class OtpService {
         String key = otpKey(type, userId);
         String otp = String.format("%06d", random.nextInt(1_000_000));
 
-        String encodedOtp = encoder.encode(otp);
-
         long ttlSeconds = otpProperties.getTtlSeconds().getOrDefault(type, 300);
 
-        redisTemplate.opsForValue().set(
-                key,
-                encodedOtp,
-                Duration.ofSeconds(ttlSeconds)
-        );
+        redisTemplate.execute(STORE_SCRIPT, List.of(key), otpHmac(key, otp), String.valueOf(ttlSeconds));
         return otp;
     }
 
     /**
-     * Validate the input OTP against the stored hashed OTP in Redis.
+     * Validate the input OTP against the stored HMAC in Redis.
      * <p>
-     * If valid, the OTP will be deleted from Redis. If not, an exception is thrown.
+     * If valid, the OTP will be deleted from Redis. If not, the failed attempt is counted and an exception is
+     * thrown; after {@code otp.max-attempts} failures the OTP is deleted and a new one must be requested.
      * </p>
      *
      * @param type     the type of OTP
      * @param userId   the ID of the user
      * @param inputOtp the raw OTP code entered by the user
-     * @throws OtpExpiredEx if no OTP is found in Redis (expired or never set)
-     * @throws OtpInvalidEx if the OTP does not match the stored hash
+     * @throws OtpExpiredEx          if no OTP is found in Redis (expired or never set)
+     * @throws OtpInvalidEx          if the OTP does not match the stored hash
+     * @throws OtpAttemptsExceededEx if the OTP does not match and no attempts are left
      */
     public void verifyOtp(OtpType type, UUID userId, String inputOtp) {
         String key = otpKey(type, userId);
-        String stored = redisTemplate.opsForValue().get(key);
+        String input = otpHmac(key, inputOtp != null ? inputOtp : "");
+
+        Long result = redisTemplate.execute(VERIFY_SCRIPT, List.of(key), input,
+                String.valueOf(otpProperties.getMaxAttempts()));
 
-        if (stored == null) {
+        if (result == null || result == EXPIRED) {
             throw new OtpExpiredEx("OTP is expired");
         }
-
-        if (encoder.matches(inputOtp, stored)) {
-            redisTemplate.delete(key);
-        } else {
+        if (result == LOCKED) {
+            throw new OtpAttemptsExceededEx("Too many invalid Otp attempts");
+        }
+        if (result == MISMATCH) {
             throw new OtpInvalidEx("Invalid Otp");
         }
     }
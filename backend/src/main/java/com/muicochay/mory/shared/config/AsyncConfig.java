@@ -6,6 +6,8 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -31,4 +33,28 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor used to fan out new moments to home timelines after their transaction commits.
+     */
+    @Bean(name = "feedFanoutExecutor")
+    public Executor feedFanoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(500);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("FeedFanout-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Virtual-thread executor used to run independent datastore lookups of a request concurrently,
+     * e.g. the stages of {@code MomentHydrator}.
+     */
+    @Bean(name = "hydrationExecutor", destroyMethod = "close")
+    public ExecutorService hydrationExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
 }
@@ -1,12 +1,18 @@
 package com.muicochay.mory.shared.config;
 
+import com.muicochay.mory.shared.redis.CodecRedisSerializer;
+import com.muicochay.mory.shared.redis.RedisCodecProperties;
+import com.muicochay.mory.shared.redis.RedisValueCodec;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 /**
  * Configuration class for customizing RedisTemplate.
  *
@@ -15,7 +21,8 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * <p>Specifically:
  * <ul>
  *   <li>Keys and Hash keys are serialized as plain strings.</li>
- *   <li>Values and Hash values are serialized as JSON using Jackson.</li>
+ *   <li>Values and Hash values are serialized by {@link CodecRedisSerializer}: types with a
+ *   {@link RedisValueCodec} in a compact binary form, everything else as JSON using Jackson.</li>
  * </ul>
  *
  * <p>This setup improves readability and interoperability of stored data in Redis.</p>
@@ -24,15 +31,31 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 public class RedisConfig {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
+    public CodecRedisSerializer redisValueSerializer(
+            List<RedisValueCodec<?>> codecs,
+            RedisCodecProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        return new CodecRedisSerializer(codecs, properties, meterRegistry);
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory, CodecRedisSerializer redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
 
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(redisValueSerializer);
 
         return template;
     }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
 }
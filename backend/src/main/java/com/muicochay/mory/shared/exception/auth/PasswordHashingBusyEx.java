@@ -0,0 +1,10 @@
+package com.muicochay.mory.shared.exception.auth;
+
+import com.muicochay.mory.shared.exception.BaseException;
+import org.springframework.http.HttpStatus;
+
+public class PasswordHashingBusyEx extends BaseException {
+    public PasswordHashingBusyEx(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
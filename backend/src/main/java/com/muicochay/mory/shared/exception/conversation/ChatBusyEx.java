@@ -0,0 +1,10 @@
+package com.muicochay.mory.shared.exception.conversation;
+
+import com.muicochay.mory.shared.exception.BaseException;
+import org.springframework.http.HttpStatus;
+
+public class ChatBusyEx extends BaseException {
+    public ChatBusyEx(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,10 @@
+package com.muicochay.mory.shared.exception.global;
+
+import com.muicochay.mory.shared.exception.BaseException;
+import org.springframework.http.HttpStatus;
+
+public class ConcurrentUpdateEx extends BaseException {
+    public ConcurrentUpdateEx(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,10 @@
+package com.muicochay.mory.shared.exception.otp;
+
+import com.muicochay.mory.shared.exception.BaseException;
+import org.springframework.http.HttpStatus;
+
+public class OtpAttemptsExceededEx extends BaseException {
+    public OtpAttemptsExceededEx(String message) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
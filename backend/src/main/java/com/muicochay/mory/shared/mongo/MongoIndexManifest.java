@@ -0,0 +1,83 @@
+package com.muicochay.mory.shared.mongo;
+
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Every index the application relies on, keyed by the query shapes that use it.
+ *
+ * <p>Auto index creation is disabled, so the mapping annotations alone create nothing;
+ * this manifest is the single source applied and verified by {@link MongoIndexVerifier}.</p>
+ */
+public final class MongoIndexManifest {
+
+    public static final String MOMENTS = "moments";
+    public static final String MOMENT_REACTIONS = "moment_reactions";
+    public static final String MESSAGES = "messages";
+
+    /**
+     * Moments of a user in keyset order: user moments, visible moments, home feed, target user feed.
+     */
+    public static final String MOMENT_USER_FEED_INDEX = "user_createdAt_idx";
+
+    /**
+     * Moments of a story in keyset order, latest story moment lookups and story statistics.
+     */
+    public static final String MOMENT_STORY_FEED_INDEX = "story_createdAt_idx";
+
+    /**
+     * Bulk updates by story and author (unlink, move, soft delete) and per-day existence checks.
+     */
+    public static final String MOMENT_STORY_USER_INDEX = "story_user_date_idx";
+
+    /**
+     * Multikey index for moments the requester is tagged in.
+     */
+    public static final String MOMENT_TAGS_INDEX = "tags_createdAt_idx";
+
+    public static final String REACTION_MOMENT_INDEX = "momentId";
+
+    /**
+     * Messages of a conversation in keyset order: chat history before, after and around a message.
+     */
+    public static final String MESSAGE_CONVERSATION_INDEX = "conversation_createdAt_id_idx";
+
+    private static final Document NOT_DELETED = new Document("deletedAt", null);
+
+    public static final List<MongoIndexSpec> INDEXES = List.of(
+            new MongoIndexSpec(MOMENTS, MOMENT_USER_FEED_INDEX,
+                    new Document("userId", 1).append("createdAt", -1).append("_id", -1),
+                    NOT_DELETED, false),
+            new MongoIndexSpec(MOMENTS, MOMENT_STORY_FEED_INDEX,
+                    new Document("storyId", 1).append("createdAt", -1).append("_id", -1),
+                    NOT_DELETED, false),
+            new MongoIndexSpec(MOMENTS, MOMENT_STORY_USER_INDEX,
+                    new Document("storyId", 1).append("userId", 1).append("date", 1),
+                    null, false),
+            new MongoIndexSpec(MOMENTS, MOMENT_TAGS_INDEX,
+                    new Document("tags", 1).append("createdAt", -1).append("_id", -1),
+                    NOT_DELETED, false),
+            new MongoIndexSpec(MOMENT_REACTIONS, REACTION_MOMENT_INDEX,
+                    new Document("momentId", 1),
+                    null, true),
+            new MongoIndexSpec(MESSAGES, MESSAGE_CONVERSATION_INDEX,
+                    new Document("conversationId", 1).append("createdAt", -1).append("_id", -1),
+                    null, false)
+    );
+
+    /**
+     * Indexes replaced by a declared one. They are dropped in {@code apply} mode once every declared index
+     * of their collection exists, and reported otherwise.
+     */
+    public static final List<RetiredIndex> RETIRED_INDEXES = List.of(
+            // {conversationId: 1, createdAt: -1}, superseded by MESSAGE_CONVERSATION_INDEX
+            new RetiredIndex(MESSAGES, "conversation_createdAt_idx")
+    );
+
+    public record RetiredIndex(String collection, String name) {
+    }
+
+    private MongoIndexManifest() {
+    }
+}
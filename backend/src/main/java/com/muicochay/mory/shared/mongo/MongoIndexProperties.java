@@ -0,0 +1,34 @@
+package com.muicochay.mory.shared.mongo;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds how the {@link MongoIndexManifest} is enforced at startup.
+ *
+ * <pre>{@code
+ * mongo:
+ *   indexes:
+ *     mode: apply
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "mongo.indexes")
+@Getter
+@Setter
+public class MongoIndexProperties {
+
+    /**
+     * {@code apply} creates missing indexes, {@code warn} only reports them,
+     * {@code fail} aborts startup when an index is missing or differs from the manifest.
+     */
+    private Mode mode = Mode.APPLY;
+
+    public enum Mode {
+        APPLY,
+        WARN,
+        FAIL
+    }
+}
@@ -0,0 +1,36 @@
+package com.muicochay.mory.shared.mongo;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+
+/**
+ * One declared index of the {@link MongoIndexManifest}.
+ *
+ * @param collection    the collection the index belongs to
+ * @param name          the index name, used to match it against the server
+ * @param keys          the ordered key pattern, e.g. {@code {userId: 1, createdAt: -1}}
+ * @param partialFilter the partial filter expression, or {@code null} for a full index
+ * @param unique        whether the index enforces uniqueness
+ */
+public record MongoIndexSpec(
+        String collection,
+        String name,
+        Document keys,
+        Document partialFilter,
+        boolean unique
+) {
+
+    public IndexDefinition toDefinition() {
+        CompoundIndexDefinition definition = new CompoundIndexDefinition(keys);
+        definition.named(name);
+        if (partialFilter != null) {
+            definition.partial(PartialIndexFilter.of(partialFilter));
+        }
+        if (unique) {
+            definition.unique();
+        }
+        return definition;
+    }
+}
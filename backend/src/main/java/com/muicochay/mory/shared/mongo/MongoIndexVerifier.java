@@ -0,0 +1,157 @@
+package com.muicochay.mory.shared.mongo;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies or verifies the {@link MongoIndexManifest} at startup.
+ *
+ * <p>Missing indexes are created in {@code apply} mode and reported otherwise. Indexes whose keys,
+ * partial filter or uniqueness differ from the manifest are never dropped automatically; they are
+ * reported, and abort startup in {@code fail} mode. Indexes present on the server but absent from
+ * the manifest are reported as undeclared. Retired indexes are dropped in {@code apply} mode once every
+ * declared index of their collection is in place, so a replacement is always built before the old one goes.</p>
+ *
+ * <p>A daily job reports declared indexes that have not served any operation since the server started,
+ * based on {@code $indexStats}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexVerifier implements ApplicationRunner {
+
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoIndexProperties.Mode mode = properties.getMode();
+        List<String> problems = new ArrayList<>();
+
+        Map<String, List<MongoIndexSpec>> specsByCollection = MongoIndexManifest.INDEXES.stream()
+                .collect(Collectors.groupingBy(MongoIndexSpec::collection, LinkedHashMap::new, Collectors.toList()));
+
+        specsByCollection.forEach((collection, specs) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            Map<String, IndexInfo> existing = indexOps.getIndexInfo().stream()
+                    .collect(Collectors.toMap(IndexInfo::getName, Function.identity()));
+
+            int problemsBefore = problems.size();
+            for (MongoIndexSpec spec : specs) {
+                IndexInfo info = existing.get(spec.name());
+                if (info == null) {
+                    if (mode == MongoIndexProperties.Mode.APPLY) {
+                        create(indexOps, spec, problems);
+                    } else {
+                        problems.add("missing " + collection + "." + spec.name());
+                    }
+                } else if (!matches(spec, info)) {
+                    problems.add("mismatched " + collection + "." + spec.name());
+                }
+            }
+
+            Set<String> retired = MongoIndexManifest.RETIRED_INDEXES.stream()
+                    .filter(index -> index.collection().equals(collection))
+                    .map(MongoIndexManifest.RetiredIndex::name)
+                    .filter(existing::containsKey)
+                    .collect(Collectors.toSet());
+            boolean complete = problems.size() == problemsBefore;
+            for (String name : retired) {
+                if (mode == MongoIndexProperties.Mode.APPLY && complete) {
+                    drop(indexOps, collection, name, problems);
+                } else {
+                    log.warn("Retired index {}.{} is still present", collection, name);
+                }
+            }
+
+            Set<String> declared = specs.stream().map(MongoIndexSpec::name).collect(Collectors.toSet());
+            existing.keySet().stream()
+                    .filter(name -> !ID_INDEX.equals(name) && !declared.contains(name) && !retired.contains(name))
+                    .forEach(name -> log.warn("Undeclared index {}.{} is not part of the index manifest", collection, name));
+        });
+
+        if (problems.isEmpty()) {
+            log.info("Mongo indexes match the manifest ({} declared)", MongoIndexManifest.INDEXES.size());
+            return;
+        }
+        if (mode == MongoIndexProperties.Mode.FAIL) {
+            throw new IllegalStateException("Mongo indexes do not match the manifest: " + problems);
+        }
+        problems.forEach(problem -> log.warn("Mongo index check: {}", problem));
+    }
+
+    @Scheduled(cron = "${mongo.indexes.report-cron:0 30 4 * * *}")
+    public void reportUnusedIndexes() {
+        Set<String> collections = MongoIndexManifest.INDEXES.stream()
+                .map(MongoIndexSpec::collection)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        for (String collection : collections) {
+            List<Document> stats = mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))
+                    .into(new ArrayList<>());
+            for (Document stat : stats) {
+                Document accesses = stat.get("accesses", Document.class);
+                Number ops = accesses != null ? accesses.get("ops", Number.class) : null;
+                if (ops != null && ops.longValue() == 0 && !ID_INDEX.equals(stat.getString("name"))) {
+                    log.info("Index {}.{} has not been used since {}",
+                            collection, stat.getString("name"), accesses.getDate("since"));
+                }
+            }
+        }
+    }
+
+    private void create(IndexOperations indexOps, MongoIndexSpec spec, List<String> problems) {
+        try {
+            indexOps.ensureIndex(spec.toDefinition());
+            log.info("Created index {}.{}", spec.collection(), spec.name());
+        } catch (Exception e) {
+            log.error("Failed to create index {}.{}", spec.collection(), spec.name(), e);
+            problems.add("failed " + spec.collection() + "." + spec.name());
+        }
+    }
+
+    private void drop(IndexOperations indexOps, String collection, String name, List<String> problems) {
+        try {
+            indexOps.dropIndex(name);
+            log.info("Dropped retired index {}.{}", collection, name);
+        } catch (Exception e) {
+            log.error("Failed to drop retired index {}.{}", collection, name, e);
+            problems.add("failed to drop " + collection + "." + name);
+        }
+    }
+
+    private boolean matches(MongoIndexSpec spec, IndexInfo info) {
+        Document keys = new Document();
+        for (IndexField field : info.getIndexFields()) {
+            keys.append(field.getKey(), field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+        }
+        if (!new ArrayList<>(keys.entrySet()).equals(new ArrayList<>(spec.keys().entrySet()))) {
+            return false;
+        }
+        if (info.isUnique() != spec.unique()) {
+            return false;
+        }
+        String partialFilter = info.getPartialFilterExpression();
+        if (spec.partialFilter() == null) {
+            return partialFilter == null;
+        }
+        return partialFilter != null && Document.parse(partialFilter).equals(spec.partialFilter());
+    }
+}
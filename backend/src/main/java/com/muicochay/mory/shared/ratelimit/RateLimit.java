@@ -13,7 +13,8 @@ import java.lang.annotation.*;
  *     prefix = "login",
  *     limit = 5,
  *     windowSeconds = 60,
- *     strategy = RateLimitKeyStrategy.PER_IP
+ *     strategy = RateLimitKeyStrategy.PER_IP,
+ *     algorithm = RateLimitAlgorithm.SLIDING_WINDOW_LOG
  * )
  * public void login() { ... }
  * }
@@ -28,4 +29,5 @@ public @interface RateLimit {
     int windowSeconds();
     RateLimitKeyStrategy strategy();
     String customKey() default "";
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.FIXED_WINDOW;
 }
@@ -0,0 +1,22 @@
+package com.muicochay.mory.shared.ratelimit;
+
+/**
+ * Counting algorithms available to {@link RateLimit}; each one is a single Lua script call in Redis.
+ */
+public enum RateLimitAlgorithm {
+
+    /**
+     * At most {@code limit} calls per window, counted from the first call of the window.
+     */
+    FIXED_WINDOW,
+
+    /**
+     * At most {@code limit} allowed calls in any interval of {@code windowSeconds}, using a log of call times.
+     */
+    SLIDING_WINDOW_LOG,
+
+    /**
+     * A bucket of {@code limit} tokens refilled evenly over {@code windowSeconds}; allows short bursts.
+     */
+    TOKEN_BUCKET,
+}
@@ -7,8 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -16,6 +15,8 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 /**
  * Aspect that intercepts method calls annotated with {@link RateLimit}
  * and applies rate limiting logic based on the configured strategy.
+ *
+ * <p>The identifier is built by the {@link RateLimitKeyResolver} compiled for the method at startup.</p>
  */
 @Aspect
 @Component
@@ -23,6 +24,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 @Slf4j
 public class RateLimitAspect {
     private final RateLimitService rateLimitService;
+    private final RateLimitKeyResolvers rateLimitKeyResolvers;
 
     /**
      * Intercepts methods annotated with {@code @RateLimit} and enforces the rate limit.
@@ -36,33 +38,16 @@ public class RateLimitAspect {
     public Object applyRateLimit(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
 
-        String identifier;
-        switch (rateLimit.strategy()) {
-            case PER_USER_ID -> identifier = getUserIdentifier();
-            case PER_IP -> identifier = getClientIp(request);
-            case PER_IP_AND_USER_ID -> identifier = getClientIp(request) + "::" + getUserIdentifier();
-            case CUSTOM -> {
-                if (rateLimit.customKey().isBlank()) {
-                    throw new IllegalArgumentException("customKey must be set when using CUSTOM strategy");
-                }
-                identifier = getCustomKeyFromArgs(rateLimit.customKey(), joinPoint);
-            }
-            case PER_IP_AND_CUSTOM -> {
-                if (rateLimit.customKey().isBlank()) {
-                    throw new IllegalArgumentException("customKey must be specified for PER_IP_AND_CUSTOM strategy");
-                }
-                String custom = getCustomKeyFromArgs(rateLimit.customKey(), joinPoint);
-                String ip = getClientIp(request);
-                identifier = ip + "::" + custom;
-            }
-            default -> throw new IllegalArgumentException("Unknown strategy: " + rateLimit.strategy());
-        }
+        RateLimitKeyResolver resolver = rateLimitKeyResolvers.get(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), rateLimit);
+        String identifier = resolver.resolve(request, joinPoint.getArgs());
 
         boolean allowed = rateLimitService.isAllowed(
                 rateLimit.prefix(),
                 identifier,
                 rateLimit.limit(),
-                rateLimit.windowSeconds()
+                rateLimit.windowSeconds(),
+                rateLimit.algorithm()
         );
 
         if (!allowed) {
@@ -71,46 +56,4 @@ public class RateLimitAspect {
 
         return joinPoint.proceed();
     }
-
-    private String getUserIdentifier() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        return (authentication != null && authentication.isAuthenticated()) ? "user:" + authentication.getName() : "user:anonymous";
-    }
-
-    private String getClientIp(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        return "ip:" + (xfHeader != null ? xfHeader.split(",")[0] : request.getRemoteAddr());
-    }
-
-    private String getCustomKeyFromArgs(String customKey, ProceedingJoinPoint joinPoint) {
-        String[] parts = customKey.split("\\.");
-        Object value = null;
-        String argName = parts[0];
-        String fieldName = parts.length > 1 ? parts[1] : null;
-
-        String[] paramNames = ((org.aspectj.lang.reflect.CodeSignature) joinPoint.getSignature()).getParameterNames();
-        Object[] args = joinPoint.getArgs();
-
-        for (int i = 0; i < paramNames.length; i++) {
-            if (paramNames[i].equals(argName)) {
-                value = args[i];
-                break;
-            }
-        }
-
-        if (value == null) throw new IllegalArgumentException("Custom key param not found: " + argName);
-
-        if (fieldName != null) {
-            try {
-                var filed = value.getClass().getDeclaredField(fieldName);
-                filed.setAccessible(true);
-                Object fieldValue = filed.get(value);
-                return "custom::" + (fieldValue != null ? fieldValue.toString() : "null");
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                throw new RuntimeException("Failed to resolve custom key path: " + customKey, e);
-            }
-        }
-        return "custom::" + value.toString();
-    }
 }
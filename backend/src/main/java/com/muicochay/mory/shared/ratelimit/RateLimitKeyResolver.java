@@ -0,0 +1,12 @@
+package com.muicochay.mory.shared.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Builds the rate-limit identifier of one {@link RateLimit}-annotated method from the current request and
+ * the method arguments. Instances are compiled once per method by {@link RateLimitKeyResolvers}.
+ */
+@FunctionalInterface
+public interface RateLimitKeyResolver {
+    String resolve(HttpServletRequest request, Object[] args);
+}
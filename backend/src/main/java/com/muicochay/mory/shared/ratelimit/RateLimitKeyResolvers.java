@@ -0,0 +1,160 @@
+package com.muicochay.mory.shared.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiles the key strategy of every {@link RateLimit}-annotated bean method into a {@link RateLimitKeyResolver}
+ * while the application starts.
+ *
+ * <p>A {@code customKey} of the form {@code param} or {@code param.field} is resolved to the parameter index and,
+ * for a field, a {@link MethodHandle} on its getter (or on the field itself when there is no getter), so no
+ * names are looked up and no reflection happens per call. A {@code customKey} that does not match the method
+ * fails startup.</p>
+ */
+@Component
+public class RateLimitKeyResolvers implements BeanPostProcessor {
+
+    private final Map<Method, RateLimitKeyResolver> resolvers = new ConcurrentHashMap<>();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        Class<?> targetClass = ClassUtils.getUserClass(AopUtils.getTargetClass(bean));
+        ReflectionUtils.doWithMethods(targetClass, method -> {
+            RateLimit rateLimit = AnnotationUtils.findAnnotation(method, RateLimit.class);
+            if (rateLimit != null) {
+                resolvers.computeIfAbsent(method, m -> compile(m, rateLimit));
+            }
+        }, ReflectionUtils.USER_DECLARED_METHODS);
+        return bean;
+    }
+
+    /**
+     * Returns the resolver of the method, compiling it if the method did not belong to a bean seen at startup.
+     */
+    public RateLimitKeyResolver get(Method method, RateLimit rateLimit) {
+        return resolvers.computeIfAbsent(method, m -> compile(m, rateLimit));
+    }
+
+    private RateLimitKeyResolver compile(Method method, RateLimit rateLimit) {
+        return switch (rateLimit.strategy()) {
+            case PER_USER_ID -> (request, args) -> userIdentifier();
+            case PER_IP -> (request, args) -> clientIp(request);
+            case PER_IP_AND_USER_ID -> (request, args) -> clientIp(request) + "::" + userIdentifier();
+            case CUSTOM -> {
+                Function<Object[], String> custom = compileCustomKey(method, rateLimit.customKey());
+                yield (request, args) -> custom.apply(args);
+            }
+            case PER_IP_AND_CUSTOM -> {
+                Function<Object[], String> custom = compileCustomKey(method, rateLimit.customKey());
+                yield (request, args) -> clientIp(request) + "::" + custom.apply(args);
+            }
+        };
+    }
+
+    private Function<Object[], String> compileCustomKey(Method method, String customKey) {
+        if (customKey.isBlank()) {
+            throw invalid(method, "customKey must be set when using a custom strategy");
+        }
+        String[] parts = customKey.split("\\.");
+        if (parts.length > 2) {
+            throw invalid(method, "customKey must be 'param' or 'param.field': " + customKey);
+        }
+
+        String[] paramNames = parameterNameDiscoverer.getParameterNames(method);
+        if (paramNames == null) {
+            throw invalid(method, "parameter names are not available, compile with -parameters");
+        }
+        int index = -1;
+        for (int i = 0; i < paramNames.length; i++) {
+            if (paramNames[i].equals(parts[0])) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            throw invalid(method, "custom key param not found: " + parts[0]);
+        }
+
+        int paramIndex = index;
+        String argName = parts[0];
+        if (parts.length == 1) {
+            return args -> "custom::" + requireArg(args[paramIndex], argName);
+        }
+
+        MethodHandle getter = fieldGetter(method, method.getParameterTypes()[paramIndex], parts[1]);
+        return args -> {
+            Object value = requireArg(args[paramIndex], argName);
+            try {
+                Object fieldValue = getter.invoke(value);
+                return "custom::" + (fieldValue != null ? fieldValue.toString() : "null");
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to resolve custom key path: " + customKey, e);
+            }
+        };
+    }
+
+    private MethodHandle fieldGetter(Method method, Class<?> type, String fieldName) {
+        try {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, fieldName);
+            if (descriptor != null && descriptor.getReadMethod() != null) {
+                return MethodHandles.publicLookup().unreflect(descriptor.getReadMethod());
+            }
+            Field field = ReflectionUtils.findField(type, fieldName);
+            if (field == null) {
+                throw invalid(method, "field not found on " + type.getSimpleName() + ": " + fieldName);
+            }
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup()).unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            throw invalid(method, "field is not accessible on " + type.getSimpleName() + ": " + fieldName);
+        }
+    }
+
+    private Object requireArg(Object value, String argName) {
+        if (value == null) {
+            throw new IllegalArgumentException("Custom key param not found: " + argName);
+        }
+        return value;
+    }
+
+    private IllegalStateException invalid(Method method, String reason) {
+        return new IllegalStateException("Invalid @RateLimit on "
+                + method.getDeclaringClass().getSimpleName() + "#" + method.getName() + ": " + reason);
+    }
+
+    private static String userIdentifier() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return (authentication != null && authentication.isAuthenticated()) ? "user:" + authentication.getName() : "user:anonymous";
+    }
+
+    private static String clientIp(HttpServletRequest request) {
+        String xfHeader = request.getHeader("X-Forwarded-For");
+        if (xfHeader == null) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        int comma = xfHeader.indexOf(',');
+        return "ip:" + (comma >= 0 ? xfHeader.substring(0, comma) : xfHeader);
+    }
+}
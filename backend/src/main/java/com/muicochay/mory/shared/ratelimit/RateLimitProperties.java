@@ -0,0 +1,32 @@
+package com.muicochay.mory.shared.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the settings of the in-process rate-limit pre-filter.
+ *
+ * <pre>{@code
+ * rate-limit:
+ *   local-prefilter: true
+ *   local-maximum-size: 100000
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    /**
+     * Whether callers denied by Redis are rejected locally, without a Redis call, until they may retry.
+     */
+    private boolean localPrefilter = true;
+
+    /**
+     * Maximum number of denied keys remembered by the pre-filter.
+     */
+    private long localMaximumSize = 100_000;
+}
@@ -1,19 +1,105 @@
 package com.muicochay.mory.shared.ratelimit;
 
-import lombok.RequiredArgsConstructor;
-import org.apache.commons.codec.digest.DigestUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.codec.digest.MurmurHash3;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service that handles Redis-backed rate-limiting logic.
+ *
+ * <p>Every check is one Lua script call, so counting and expiry are atomic and cost a single round trip.
+ * The scripts return whether the call is allowed and, when it is not, how long until it could be. With the
+ * local pre-filter enabled that delay is remembered per key, and further calls during it are rejected without
+ * touching Redis. Decisions are counted under {@code rate.limit.decisions} per prefix, result and source.</p>
  */
 @Service
-@RequiredArgsConstructor
 public class RateLimitService {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FIXED_WINDOW_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('INCR', KEYS[1])
+            local ttl = redis.call('PTTL', KEYS[1])
+            if ttl < 0 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+                ttl = tonumber(ARGV[2])
+            end
+            if current <= tonumber(ARGV[1]) then
+                return {1, 0}
+            end
+            return {0, ttl}
+            """, List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SLIDING_WINDOW_LOG_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local limit = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+            if redis.call('ZCARD', KEYS[1]) < limit then
+                redis.call('ZADD', KEYS[1], now, now .. ':' .. ARGV[3])
+                redis.call('PEXPIRE', KEYS[1], window)
+                return {1, 0}
+            end
+            local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+            return {0, tonumber(oldest[2]) + window - now}
+            """, List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local capacity = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local rate = capacity / window
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+            local allowed = 0
+            local retry = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            else
+                retry = math.ceil((1 - tokens) / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], window)
+            return {allowed, retry}
+            """, List.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+
     private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Long> deniedUntil;
+
+    public RateLimitService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.deniedUntil = properties.isLocalPrefilter()
+                ? Caffeine.newBuilder().maximumSize(properties.getLocalMaximumSize()).build()
+                : null;
+    }
+
+    /**
+     * Checks whether the requester is allowed to proceed under a fixed-window rate limit.
+     */
+    public boolean isAllowed(String prefix, String identifier, int limit, int windowSeconds) {
+        return isAllowed(prefix, identifier, limit, windowSeconds, RateLimitAlgorithm.FIXED_WINDOW);
+    }
 
     /**
      * Checks whether the requester is allowed to proceed under the rate limit.
@@ -22,17 +108,57 @@ public class RateLimitService {
      * @param identifier     unique user/IP/custom identifier
      * @param limit          max allowed requests
      * @param windowSeconds  time window in seconds
+     * @param algorithm      how calls are counted
      * @return true if allowed, false if rate limit is exceeded
      */
-    public boolean isAllowed(String prefix, String identifier, int limit, int windowSeconds) {
-        String hashedIdentifier = DigestUtils.sha256Hex(identifier);
-        String key = prefix + "::" + hashedIdentifier;
+    public boolean isAllowed(String prefix, String identifier, int limit, int windowSeconds, RateLimitAlgorithm algorithm) {
+        String key = prefix + "::" + hash(identifier);
+
+        if (deniedUntil != null) {
+            Long until = deniedUntil.getIfPresent(key);
+            if (until != null) {
+                if (System.currentTimeMillis() < until) {
+                    record(prefix, false, "local");
+                    return false;
+                }
+                deniedUntil.asMap().remove(key, until);
+            }
+        }
+
+        String windowMs = String.valueOf(Duration.ofSeconds(windowSeconds).toMillis());
+        List<?> result = switch (algorithm) {
+            case FIXED_WINDOW -> redisTemplate.execute(FIXED_WINDOW_SCRIPT, List.of(key),
+                    String.valueOf(limit), windowMs);
+            case SLIDING_WINDOW_LOG -> redisTemplate.execute(SLIDING_WINDOW_LOG_SCRIPT, List.of(key),
+                    String.valueOf(limit), windowMs, Long.toHexString(ThreadLocalRandom.current().nextLong()));
+            case TOKEN_BUCKET -> redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(key),
+                    String.valueOf(limit), windowMs);
+        };
 
-        Long current = redisTemplate.opsForValue().increment(key);
-        if (current != null && current == 1) {
-            redisTemplate.expire(key, Duration.ofSeconds(windowSeconds));
+        boolean allowed = result != null && ((Number) result.get(0)).longValue() == 1;
+        if (!allowed && deniedUntil != null && result != null) {
+            long retryAfterMs = ((Number) result.get(1)).longValue();
+            if (retryAfterMs > 0) {
+                deniedUntil.put(key, System.currentTimeMillis() + retryAfterMs);
+            }
         }
+        record(prefix, allowed, "redis");
+        return allowed;
+    }
+
+    /**
+     * 128-bit MurmurHash3 of the identifier: keys only need to be short and well spread, not secret.
+     */
+    private String hash(String identifier) {
+        byte[] bytes = identifier.getBytes(StandardCharsets.UTF_8);
+        long[] hash = MurmurHash3.hash128x64(bytes, 0, bytes.length, 0);
+        return HEX.toHexDigits(hash[0]) + HEX.toHexDigits(hash[1]);
+    }
 
-        return current != null && current <= limit;
+    private void record(String prefix, boolean allowed, String source) {
+        meterRegistry.counter("rate.limit.decisions",
+                "prefix", prefix,
+                "result", allowed ? "allowed" : "denied",
+                "source", source).increment();
     }
 }
@@ -0,0 +1,40 @@
+package com.muicochay.mory.shared.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the settings of the binary Redis value encoding.
+ *
+ * <pre>{@code
+ * redis:
+ *   codec:
+ *     write-binary: false
+ *     compression-threshold: 1024
+ *     size-sample-rate: 0.01
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "redis.codec")
+@Getter
+@Setter
+public class RedisCodecProperties {
+
+    /**
+     * Whether values are written in the binary envelope. Binary and JSON payloads are always readable, so a
+     * rolling upgrade first deploys with {@code false} and enables it once every node runs the new reader.
+     */
+    private boolean writeBinary = false;
+
+    /**
+     * Encoded values of at least this many bytes are deflated.
+     */
+    private int compressionThreshold = 1024;
+
+    /**
+     * Share of writes that are also encoded as JSON to report the bytes saved per key family.
+     */
+    private double sizeSampleRate = 0.01;
+}
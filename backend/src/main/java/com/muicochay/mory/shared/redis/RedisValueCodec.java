@@ -0,0 +1,76 @@
+package com.muicochay.mory.shared.redis;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Hand-written binary encoding of one Redis value type, used by {@link CodecRedisSerializer}.
+ *
+ * <p>The {@link #id()} is written into every payload and must never be reused for another type. When the
+ * layout changes, {@link #version()} is bumped and {@link #read(DataInput, int)} keeps decoding the previous
+ * versions until they have expired from Redis.</p>
+ */
+public interface RedisValueCodec<T> {
+
+    /**
+     * Stable identifier of the codec, between 1 and 127.
+     */
+    int id();
+
+    /**
+     * Key family the codec serves, used as a metric tag.
+     */
+    String name();
+
+    Class<T> type();
+
+    int version();
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in, int version) throws IOException;
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeUuid(DataOutput out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    static UUID readUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    static <E extends Enum<E>> void writeEnum(DataOutput out, E value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    static <E extends Enum<E>> E readEnum(DataInput in, Class<E> type) throws IOException {
+        String name = readString(in);
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+}
@@ -8,6 +8,8 @@ import com.muicochay.mory.user.entity.User;
 import jakarta.persistence.*;
 import lombok.*;
 import org.bson.types.ObjectId;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -17,6 +19,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "stories")
+@DynamicUpdate
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -65,6 +68,13 @@ public class Story extends BaseAuditEntity {
     @OneToMany(mappedBy = "story", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StoryMember> members = new ArrayList<>();
 
+    // Moment stats, only written through StoryRepository bulk updates
+    @ColumnDefault("0")
+    @Column(name = "moment_count", nullable = false)
+    private long momentCount = 0;
+
+    private Instant firstMomentCreatedAt;
+
     private Instant latestMomentCreatedAt;
 
     private ObjectId latestMomentId;
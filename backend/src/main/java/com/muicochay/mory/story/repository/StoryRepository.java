@@ -3,7 +3,9 @@ package com.muicochay.mory.story.repository;
 import com.muicochay.mory.story.entity.Story;
 import org.bson.types.ObjectId;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -187,6 +189,16 @@ public interface StoryRepository extends JpaRepository<Story, UUID> {
     Optional<Story> findByIdWithMembers(@Param("storyId") UUID storyId);
 
 
+    @Query(value = """
+            SELECT s.creator_id FROM stories s
+            WHERE s.id = :storyId AND s.deleted_at IS NULL
+            UNION
+            SELECT m.user_id FROM story_members m
+            WHERE m.story_id = :storyId
+        """, nativeQuery = true)
+    List<UUID> findParticipantIds(@Param("storyId") UUID storyId);
+
+
     @EntityGraph(attributePaths = {"creator", "creator.profile"})
     @Query("SELECT s FROM Story s WHERE s.id = :storyId AND s.deletedAt IS NULL")
     Optional<Story> findByIdWithCreatorAndProfile(@Param("storyId") UUID storyId);
@@ -251,4 +263,56 @@ public interface StoryRepository extends JpaRepository<Story, UUID> {
             @Param("limit") int limit,
             @Param("type") String type
     );
+
+    @Modifying
+    @Query("""
+            UPDATE Story s SET
+                s.momentCount = s.momentCount + 1,
+                s.firstMomentCreatedAt = CASE
+                    WHEN s.firstMomentCreatedAt IS NULL OR s.firstMomentCreatedAt > :createdAt THEN :createdAt
+                    ELSE s.firstMomentCreatedAt END,
+                s.latestMomentId = CASE
+                    WHEN s.latestMomentCreatedAt IS NULL OR s.latestMomentCreatedAt <= :createdAt THEN :momentId
+                    ELSE s.latestMomentId END,
+                s.latestMomentCreatedAt = CASE
+                    WHEN s.latestMomentCreatedAt IS NULL OR s.latestMomentCreatedAt <= :createdAt THEN :createdAt
+                    ELSE s.latestMomentCreatedAt END
+            WHERE s.id = :storyId
+        """)
+    int recordMomentAdded(
+            @Param("storyId") UUID storyId,
+            @Param("momentId") ObjectId momentId,
+            @Param("createdAt") Instant createdAt
+    );
+
+
+    @Modifying
+    @Query("""
+            UPDATE Story s SET
+                s.momentCount = CASE WHEN s.momentCount > 0 THEN s.momentCount - 1 ELSE 0 END
+            WHERE s.id = :storyId
+        """)
+    int recordMomentRemoved(@Param("storyId") UUID storyId);
+
+
+    @Modifying
+    @Query("""
+            UPDATE Story s SET
+                s.momentCount = :momentCount,
+                s.firstMomentCreatedAt = :firstCreatedAt,
+                s.latestMomentId = :latestMomentId,
+                s.latestMomentCreatedAt = :latestCreatedAt
+            WHERE s.id = :storyId
+        """)
+    int overwriteMomentStats(
+            @Param("storyId") UUID storyId,
+            @Param("momentCount") long momentCount,
+            @Param("firstCreatedAt") Instant firstCreatedAt,
+            @Param("latestMomentId") ObjectId latestMomentId,
+            @Param("latestCreatedAt") Instant latestCreatedAt
+    );
+
+
+    @Query("SELECT s FROM Story s WHERE s.deletedAt IS NULL AND s.id > :cursorId ORDER BY s.id")
+    List<Story> findActiveAfterId(@Param("cursorId") UUID cursorId, Pageable pageable);
 }
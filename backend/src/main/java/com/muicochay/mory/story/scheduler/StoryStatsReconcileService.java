@@ -0,0 +1,71 @@
+package com.muicochay.mory.story.scheduler;
+
+import com.muicochay.mory.moment.repository.MomentRepository;
+import com.muicochay.mory.story.dto.StoryMomentStats;
+import com.muicochay.mory.story.entity.Story;
+import com.muicochay.mory.story.repository.StoryRepository;
+import com.muicochay.mory.story.service.StoryStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Walks the active stories in id order and repairs the ones whose stored moment stats no longer match
+ * the moments in Mongo. The first run after startup also fills the stats of stories created before
+ * they were stored.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StoryStatsReconcileService {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final StoryRepository storyRepository;
+    private final MomentRepository momentRepository;
+    private final StoryStatsService storyStatsService;
+
+    @Scheduled(
+            initialDelayString = "${story.stats.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${story.stats.reconcile-interval-ms:21600000}"
+    )
+    public void reconcile() {
+        UUID cursorId = new UUID(0, 0);
+        int repaired = 0;
+        List<Story> stories;
+        do {
+            stories = storyRepository.findActiveAfterId(cursorId, PageRequest.of(0, BATCH_SIZE));
+            if (stories.isEmpty()) {
+                break;
+            }
+            List<UUID> storyIds = stories.stream().map(Story::getId).toList();
+            Map<UUID, StoryMomentStats> statsMap = momentRepository.getMomentStatsByStoryIds(storyIds).stream()
+                    .collect(Collectors.toMap(StoryMomentStats::storyId, Function.identity()));
+
+            for (Story story : stories) {
+                if (!storyStatsService.hasDrifted(story, statsMap.get(story.getId()))) {
+                    continue;
+                }
+                try {
+                    storyStatsService.recompute(story.getId());
+                    repaired++;
+                } catch (Exception e) {
+                    log.warn("Failed to reconcile moment stats of story {}", story.getId(), e);
+                }
+            }
+            cursorId = stories.getLast().getId();
+        } while (stories.size() == BATCH_SIZE);
+
+        if (repaired > 0) {
+            log.info("Reconciled moment stats of {} stories", repaired);
+        }
+    }
+}
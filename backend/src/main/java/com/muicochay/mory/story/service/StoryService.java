@@ -1,10 +1,8 @@
 package com.muicochay.mory.story.service;
 
-import com.muicochay.mory.connection.enums.ConnectionStatus;
+import com.muicochay.mory.connection.cache.AccessDecisionCache;
+import com.muicochay.mory.connection.cache.ConnectionAdjacencyCache;
 import com.muicochay.mory.connection.enums.ConnectionType;
-import com.muicochay.mory.connection.repository.ConnectionRepository;
-import com.muicochay.mory.connection.utils.ConnectionUtils;
-import com.muicochay.mory.moment.document.Moment;
 import com.muicochay.mory.moment.repository.MomentRepository;
 import com.muicochay.mory.shared.enums.Visibility;
 import com.muicochay.mory.shared.exception.global.InvalidArgumentEx;
@@ -46,8 +44,10 @@ public class StoryService {
     private final UserMapper userMapper;
 
     private final MomentRepository momentRepository;
-    private final ConnectionRepository connectionRepository;
+    private final AccessDecisionCache accessDecisionCache;
     private final StoryMemberRepository storyMemberRepository;
+    private final StoryStatsService storyStatsService;
+    private final ConnectionAdjacencyCache connectionAdjacencyCache;
 
     @Transactional
     public StoryResponse createStory(UUID creatorId, StoryRequest request) {
@@ -143,11 +143,7 @@ public class StoryService {
                     .filter(r -> !r.equals(creatorId))
                     .toList();
 
-            Set<UUID> connectedUserIds = connectionRepository.findConnectedUserIds(
-                    creatorId,
-                    distinctMemberIds,
-                    List.of(ConnectionStatus.CONNECTED)
-            );
+            Set<UUID> connectedUserIds = connectionAdjacencyCache.filterConnected(creatorId, distinctMemberIds);
 
             if (!connectedUserIds.isEmpty()) {
                 List<User> members = userRepository.findAllById(connectedUserIds);
@@ -204,11 +200,7 @@ public class StoryService {
             return buildStoryResponse(story, true);
         }
 
-        Set<UUID> connectedUserIds = connectionRepository.findConnectedUserIds(
-                requesterId,
-                candidateIds,
-                List.of(ConnectionStatus.CONNECTED)
-        );
+        Set<UUID> connectedUserIds = connectionAdjacencyCache.filterConnected(requesterId, candidateIds);
 
         List<User> newMembers = userRepository.findAllById(connectedUserIds);
 
@@ -254,7 +246,9 @@ public class StoryService {
         story.getMembers().removeIf(m -> validMemberIds.contains(m.getUser().getId()));
 
         int total = momentRepository.unlinkByStoryIdAndUserIds(storyId, validMemberIds);
-
+        if (total > 0) {
+            storyStatsService.recompute(storyId);
+        }
 
         return buildStoryResponse(story, true);
     }
@@ -275,6 +269,9 @@ public class StoryService {
 
         if (request.getAction() == LeaveStoryAction.KEEP_AS_INDEPENDENT_MOMENTS) {
             int affectedMoments = momentRepository.unlinkByStoryIdAndUserId(storyId, userId);
+            if (affectedMoments > 0) {
+                storyStatsService.recompute(storyId);
+            }
             return LeaveStoryResponse.builder()
                     .affectedMomentCount(affectedMoments)
                     .build();
@@ -286,16 +283,15 @@ public class StoryService {
                     .build();
         }
         int affectedMoments = momentRepository.softDeleteByStoryIdAndUserId(storyId, userId, Instant.now());
+        if (affectedMoments > 0) {
+            storyStatsService.recompute(storyId);
+        }
         return LeaveStoryResponse.builder()
                 .affectedMomentCount(affectedMoments)
                 .build();
     }
 
     private Story createNewPersonalStoryFromExisting(Story originalStory, UUID userId) {
-        Moment latestUserMoment = momentRepository.findLatestMomentByUserIdAndStoryId(
-                userId,
-                originalStory.getId()
-        ).orElse(null);
         Story newStory = Story.builder()
                 .creator(User.builder().id(userId).build())
                 .title(originalStory.getTitle())
@@ -304,21 +300,12 @@ public class StoryService {
                 .scope(StoryScope.PERSONAL)
                 .startDate(originalStory.getStartDate())
                 .endDate(originalStory.getEndDate())
-                .latestMomentCreatedAt(latestUserMoment != null ? latestUserMoment.getCreatedAt() : null)
-                .latestMomentId(latestUserMoment != null ? latestUserMoment.getId() : null)
                 .build();
         storyRepository.saveAndFlush(newStory);
 
-        Moment latestStoryMoment = momentRepository.findLatestMomentByStoryIdExcludeUserId(
-                originalStory.getId(),
-                userId
-        ).orElse(null);
-
-        originalStory.setLatestMomentCreatedAt(latestStoryMoment != null ? latestStoryMoment.getCreatedAt() : null);
-        originalStory.setLatestMomentId(latestStoryMoment != null ? latestStoryMoment.getId() : null);
-        storyRepository.save(originalStory);
-
         momentRepository.moveMomentsToAnotherStory(originalStory.getId(), newStory.getId(), userId);
+        storyStatsService.recompute(originalStory.getId());
+        storyStatsService.recompute(newStory.getId());
 
         return newStory;
     }
@@ -442,26 +429,16 @@ public class StoryService {
                     Stream.of(story.getCreator().getId())
             ).toList();
 
-            List<UUID> connectionIds = relatedUserIds.stream().map(userId -> ConnectionUtils.generateConnectionId(requesterId, userId)).toList();
-
-            boolean hasConnection = connectionRepository.existsAnyConnectionByIds(connectionIds, List.of(ConnectionStatus.CONNECTED.name()));
-
-            if (!hasConnection) {
+            if (!accessDecisionCache.canViewStory(requesterId, story.getId(), relatedUserIds)) {
                 throw new ResourcesAccessDeniedEx("You do not have access to this story");
             }
         }
 
         StoryResponse response = buildStoryResponse(story, true);
 
-        StoryMomentStats result = momentRepository.getMomentStatsByStoryId(storyId)
-                .orElse(null);
-
-        long total = result == null ? 0 : result.totalMoments();
-
-        response.setTotalMoments(total);
         if (story.getType() == StoryType.ALBUM || story.getType() == StoryType.BEFORE_AFTER) {
-            Instant first = result == null ? null : result.firstCreatedAt();
-            Instant last = result == null ? null : result.lastCreatedAt();
+            Instant first = story.getFirstMomentCreatedAt();
+            Instant last = story.getLatestMomentCreatedAt();
 
             String tz = Optional.ofNullable(requester)
                     .map(User::getProfile)
@@ -498,9 +475,10 @@ public class StoryService {
                     size + 1
             );
         } else {
-            UUID connectionId = ConnectionUtils.generateConnectionId(requesterId, userId);
-            ConnectionType connectionType = connectionRepository.findTypeById(connectionId)
-                    .orElseThrow(() -> new ResourcesAccessDeniedEx("Connection not found or you do not have access"));
+            ConnectionType connectionType = connectionAdjacencyCache.typeOf(requesterId, userId);
+            if (connectionType == null) {
+                throw new ResourcesAccessDeniedEx("Connection not found or you do not have access");
+            }
 
             List<Visibility> allowedVisibilities = connectionType.getAllowedVisibilities();
             List<String> allowedVisibilityStrings = allowedVisibilities.stream().map(Enum::name).toList();
@@ -536,23 +514,12 @@ public class StoryService {
         Instant nextCursorCreatedAt = hasNext ? stories.getLast().getCreatedAt() : null;
         UUID nextCursorId = hasNext ? stories.getLast().getId() : null;
 
-        List<StoryMomentStats> results = momentRepository.getMomentStatsByStoryIds(storyIds);
-        System.out.println(results);
-
-        Map<UUID, Long> totalMap = results.stream()
-                .collect(Collectors.toMap(StoryMomentStats::storyId, StoryMomentStats::totalMoments));
-        Map<UUID, Instant> firstCreatedAtMap = results.stream()
-                .collect(Collectors.toMap(StoryMomentStats::storyId, StoryMomentStats::firstCreatedAt));
-        Map<UUID, Instant> lastCreatedAtMap = results.stream()
-                .collect(Collectors.toMap(StoryMomentStats::storyId, StoryMomentStats::lastCreatedAt));
-
         List<StoryResponse> storyWithPreviewMomentResponse = stories.stream()
                 .map(story -> {
                     StoryResponse resp = buildStoryResponse(story, true);
-                    resp.setTotalMoments(totalMap.getOrDefault(story.getId(), 0L));
                     if (story.getType() == StoryType.ALBUM || story.getType() == StoryType.BEFORE_AFTER) {
-                        Instant first = firstCreatedAtMap.get(story.getId());
-                        Instant last = lastCreatedAtMap.get(story.getId());
+                        Instant first = story.getFirstMomentCreatedAt();
+                        Instant last = story.getLatestMomentCreatedAt();
 
                         ZoneId zoneId;
                         try {
@@ -651,6 +618,7 @@ public class StoryService {
                 .endDate(story.getEndDate())
                 .duration(story.getDuration())
                 .members(loadMembers ? memberInfos : null)
+                .totalMoments(story.getMomentCount())
                 .build();
     }
 
@@ -0,0 +1,79 @@
+package com.muicochay.mory.story.service;
+
+import com.muicochay.mory.moment.document.Moment;
+import com.muicochay.mory.moment.repository.MomentRepository;
+import com.muicochay.mory.story.dto.StoryMomentStats;
+import com.muicochay.mory.story.entity.Story;
+import com.muicochay.mory.story.repository.StoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Maintains the moment stats stored on {@link Story} rows: moment count, first and latest moment.
+ *
+ * <p>Single moment writes adjust the row with one conditional update, so concurrent posts in the same
+ * story do not lose increments. Bulk unlink, move and soft-delete operations, and the deletion of a
+ * first or latest moment, recompute the stats of the story from Mongo. Timestamps are kept at the
+ * millisecond precision Mongo stores.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class StoryStatsService {
+
+    private final StoryRepository storyRepository;
+    private final MomentRepository momentRepository;
+
+    @Transactional
+    public void momentAdded(UUID storyId, Moment moment) {
+        storyRepository.recordMomentAdded(storyId, moment.getId(), truncate(moment.getCreatedAt()));
+    }
+
+    /**
+     * Records the soft deletion of a moment of {@code story}, as loaded before the deletion.
+     */
+    @Transactional
+    public void momentRemoved(Story story, Moment moment) {
+        boolean boundary = moment.getId().equals(story.getLatestMomentId())
+                || Objects.equals(truncate(moment.getCreatedAt()), story.getFirstMomentCreatedAt());
+        if (boundary) {
+            recompute(story.getId());
+        } else {
+            storyRepository.recordMomentRemoved(story.getId());
+        }
+    }
+
+    @Transactional
+    public void recompute(UUID storyId) {
+        StoryMomentStats stats = momentRepository.getMomentStatsByStoryId(storyId).orElse(null);
+        Moment latest = stats == null ? null : momentRepository.findLatestMomentByStoryId(storyId).orElse(null);
+        storyRepository.overwriteMomentStats(
+                storyId,
+                stats == null ? 0 : stats.totalMoments(),
+                stats == null ? null : truncate(stats.firstCreatedAt()),
+                latest == null ? null : latest.getId(),
+                latest == null ? null : truncate(latest.getCreatedAt())
+        );
+    }
+
+    /**
+     * Whether the stats stored on the story differ from the ones aggregated from Mongo.
+     */
+    public boolean hasDrifted(Story story, StoryMomentStats stats) {
+        long total = stats == null ? 0 : stats.totalMoments();
+        Instant first = stats == null ? null : truncate(stats.firstCreatedAt());
+        Instant last = stats == null ? null : truncate(stats.lastCreatedAt());
+        return story.getMomentCount() != total
+                || !Objects.equals(truncate(story.getFirstMomentCreatedAt()), first)
+                || !Objects.equals(truncate(story.getLatestMomentCreatedAt()), last);
+    }
+
+    private Instant truncate(Instant instant) {
+        return instant == null ? null : instant.truncatedTo(ChronoUnit.MILLIS);
+    }
+}
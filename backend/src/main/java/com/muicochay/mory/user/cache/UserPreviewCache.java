@@ -0,0 +1,115 @@
+package com.muicochay.mory.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muicochay.mory.user.config.UserPreviewCacheProperties;
+import com.muicochay.mory.user.dto.UserPreviewResponse;
+import com.muicochay.mory.user.entity.UserProfile;
+import com.muicochay.mory.user.event.UserProfileChangedEvent;
+import com.muicochay.mory.user.repositoriy.UserProfileRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Size-bounded, in-process cache of {@link UserPreviewResponse}s.
+ *
+ * <p>{@link #getAll(Collection)} serves hits from memory and loads every miss with a single profile query.
+ * When a profile changes, the id is published on {@link #INVALIDATION_CHANNEL} after commit and every node,
+ * including the publisher, evicts it; the TTL bounds staleness if a message is lost. Hit ratio, evictions
+ * and load time are exported under the {@code userPreviews} cache name.</p>
+ *
+ * <p>Cached previews are shared between requests and must not be modified by callers.</p>
+ */
+@Slf4j
+@Component
+public class UserPreviewCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "user-preview::invalidate";
+    private static final String CACHE_NAME = "userPreviews";
+
+    private final Cache<UUID, UserPreviewResponse> cache;
+    private final UserProfileRepository userProfileRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public UserPreviewCache(
+            UserPreviewCacheProperties properties,
+            UserProfileRepository userProfileRepository,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            MeterRegistry meterRegistry
+    ) {
+        this.userProfileRepository = userProfileRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Returns the previews of the given users; users without a profile are absent from the result.
+     */
+    public Map<UUID, UserPreviewResponse> getAll(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return cache.getAll(new HashSet<>(userIds), this::load);
+    }
+
+    public UserPreviewResponse get(UUID userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    public void evictLocal(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        evictLocal(event.userId());
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, event.userId().toString());
+        } catch (Exception e) {
+            log.error("Failed to publish preview invalidation for user {}", event.userId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            evictLocal(UUID.fromString(body));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed preview invalidation '{}'", body);
+        }
+    }
+
+    private Map<UUID, UserPreviewResponse> load(Set<? extends UUID> userIds) {
+        List<UserProfile> profiles = userProfileRepository.findAllByUserIds(new ArrayList<>(userIds));
+        return profiles.stream()
+                .collect(Collectors.toMap(
+                        p -> p.getUser().getId(),
+                        p -> UserPreviewResponse.builder()
+                                .id(p.getUser().getId())
+                                .displayName(p.getDisplayName())
+                                .avatarUrl(p.getAvatarUrl())
+                                .build()
+                ));
+    }
+}
@@ -0,0 +1,35 @@
+package com.muicochay.mory.user.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Binds the settings of the in-process user preview cache.
+ *
+ * <pre>{@code
+ * user:
+ *   preview-cache:
+ *     maximum-size: 50000
+ *     ttl: 10m
+ * }</pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "user.preview-cache")
+@Getter
+@Setter
+public class UserPreviewCacheProperties {
+
+    /**
+     * Maximum number of previews kept per node.
+     */
+    private long maximumSize = 50_000;
+
+    /**
+     * Upper bound on how long a preview may be served after a missed invalidation.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
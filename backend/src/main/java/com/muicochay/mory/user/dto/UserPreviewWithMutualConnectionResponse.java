@@ -14,5 +14,6 @@ import java.util.List;
 public class UserPreviewWithMutualConnectionResponse {
 
     private UserPreviewResponse user;
+    private Integer mutualCount;
     private List<UserPreviewResponse> mutualConnections;
 }
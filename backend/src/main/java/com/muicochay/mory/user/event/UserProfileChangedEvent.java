@@ -0,0 +1,9 @@
+package com.muicochay.mory.user.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever the display name or avatar of a user changes.
+ */
+public record UserProfileChangedEvent(UUID userId) {
+}
@@ -1,19 +1,21 @@
 package com.muicochay.mory.user.service;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.UUID;
 
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.muicochay.mory.auth.enums.AuthProvider;
 import com.muicochay.mory.cache.constants.CacheNames;
+import com.muicochay.mory.connection.cache.AccessDecisionCache;
 import com.muicochay.mory.connection.dto.ConnectionResponse;
+import com.muicochay.mory.connection.dto.MutualConnections;
 import com.muicochay.mory.connection.entity.Connection;
 import com.muicochay.mory.connection.enums.ConnectionStatus;
-import com.muicochay.mory.connection.repository.ConnectionRepository;
+import com.muicochay.mory.connection.service.MutualConnectionService;
 import com.muicochay.mory.connection.utils.ConnectionUtils;
 import com.muicochay.mory.media.service.MediaService;
 import com.muicochay.mory.shared.exception.auth.AccountAlreadyOnboardedEx;
@@ -24,10 +26,9 @@ import com.muicochay.mory.user.dto.OnboardingRequest;
 import com.muicochay.mory.user.dto.OnboardingResponse;
 import com.muicochay.mory.user.dto.UpdateUserProfileRequest;
 import com.muicochay.mory.user.dto.UpdateUserProfileResponse;
-import com.muicochay.mory.user.dto.UserPreviewResponse;
 import com.muicochay.mory.user.dto.UserProfileResponse;
-import com.muicochay.mory.user.entity.User;
 import com.muicochay.mory.user.entity.UserProfile;
+import com.muicochay.mory.user.event.UserProfileChangedEvent;
 import com.muicochay.mory.user.interfaces.UserConnectionAndProviderProjection;
 import com.muicochay.mory.user.interfaces.UserProfileAndConnectionProjection;
 import com.muicochay.mory.user.repositoriy.UserProfileRepository;
@@ -43,8 +44,10 @@ public class UserProfileService {
 
     private final UserProfileRepository userProfileRepository;
     private final UserRepository userRepository;
-    private final ConnectionRepository connectionRepository;
+    private final AccessDecisionCache accessDecisionCache;
+    private final MutualConnectionService mutualConnectionService;
     private final MediaService mediaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @CacheEvict(value = CacheNames.AUTH_USER_CACHE, key = "T(com.muicochay.mory.cache.util.CacheKeys).checkAuthKey(#userId)")
@@ -68,6 +71,7 @@ public class UserProfileService {
         userProfile.setDisplayName(request.getDisplayName());
         userProfile.setOnboarded(true);
         userProfile.setAvatarUrl(request.getAvatarImageUrl());
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
         return OnboardingResponse.builder()
                 .avatarUrl(userProfile.getAvatarUrl())
                 .displayName(userProfile.getDisplayName())
@@ -78,13 +82,7 @@ public class UserProfileService {
     public UserProfileResponse getUserProfile(UUID userId, UUID requesterId) {
         UUID connectionId = ConnectionUtils.generateConnectionId(userId, requesterId);
         if (!userId.equals(requesterId)) {
-            boolean connected = connectionRepository.existsDirectOrMutualConnection(
-                    connectionId,
-                    requesterId,
-                    userId,
-                    ConnectionStatus.CONNECTED.name()
-            );
-            if (!connected) {
+            if (!accessDecisionCache.canViewProfile(requesterId, userId)) {
                 throw new ResourcesAccessDeniedEx("Connection not found or you do not have access");
             }
         }
@@ -103,16 +101,7 @@ public class UserProfileService {
                     ConnectionStatus.CONNECTED,
                     connectionId
             );
-            List<User> mutualConnections = userRepository.findMutualConnections(requesterId, userId, ConnectionStatus.CONNECTED);
-            List<UserPreviewResponse> mutualConnectionPreviews = mutualConnections.stream()
-                    .distinct()
-                    .map(user -> UserPreviewResponse.builder()
-                    .id(user.getId())
-                    .displayName(user.getProfile().getDisplayName())
-                    .avatarUrl(user.getProfile().getAvatarUrl())
-                    .build()
-                    )
-                    .toList();
+            MutualConnections mutualConnections = mutualConnectionService.between(requesterId, userId);
             Connection connection = data.getConnection();
             response.setAvatarUrl(data.getAvatarUrl());
             response.setDisplayName(data.getDisplayName());
@@ -122,7 +111,8 @@ public class UserProfileService {
                     ? ConnectionResponse.builder()
                             .id(connection.getId())
                             .connectionType(connection.getConnectionType())
-                            .mutualConnections(mutualConnectionPreviews)
+                            .mutualCount(mutualConnections.count())
+                            .mutualConnections(mutualConnections.preview())
                             .status(connection.getStatus())
                             .build()
                     : ConnectionResponse.builder().build();
@@ -151,6 +141,7 @@ public class UserProfileService {
             }
             userProfile.setAvatarUrl(request.getAvatarImageUrl());
         }
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
         return UpdateUserProfileResponse.builder()
                 .avatarUrl(userProfile.getAvatarUrl())
                 .displayName(userProfile.getDisplayName())
@@ -0,0 +1,198 @@
+package com.muicochay.mory.moment.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.muicochay.mory.moment.document.MomentReaction;
+import com.muicochay.mory.moment.document.RecentReactor;
+import com.muicochay.mory.shared.enums.ReactionType;
+import com.muicochay.mory.shared.exception.global.ConcurrentUpdateEx;
+import com.muicochay.mory.shared.mongo.MongoIndexManifest;
+import org.bson.UuidRepresentation;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs reaction toggles in parallel against a real MongoDB and checks that the counters, the total and
+ * the reaction map still agree afterwards.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MomentReactionCustomRepositoryImplTest {
+
+    private static final int THREADS = 32;
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    private MomentReactionCustomRepositoryImpl repository;
+    private ObjectId momentId;
+
+    @BeforeAll
+    static void connect() {
+        // Cùng cách lưu UUID với mặc định của Spring Boot
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(MONGO.getReplicaSetUrl()))
+                .uuidRepresentation(UuidRepresentation.JAVA_LEGACY)
+                .build());
+        mongoTemplate = new MongoTemplate(mongoClient, "mory_test");
+        MongoIndexManifest.INDEXES.stream()
+                .filter(spec -> spec.collection().equals(MongoIndexManifest.MOMENT_REACTIONS))
+                .forEach(spec -> mongoTemplate.indexOps(spec.collection()).ensureIndex(spec.toDefinition()));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), MomentReaction.class);
+        repository = new MomentReactionCustomRepositoryImpl(mongoTemplate);
+        momentId = new ObjectId();
+    }
+
+    @Test
+    void parallelTogglesFromManyUsersKeepCountersConsistent() throws Exception {
+        int users = 200;
+        int togglesPerUser = 4;
+        Map<UUID, ReactionType> expected = new ConcurrentHashMap<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            UUID userId = UUID.randomUUID();
+            long seed = i;
+            tasks.add(() -> {
+                Random random = new Random(seed);
+                ReactionType last = null;
+                for (int t = 0; t < togglesPerUser; t++) {
+                    ReactionType type = t > 0 && random.nextBoolean() && last != null
+                            ? last
+                            : randomType(random);
+                    last = repository.toggleReaction(momentId, userId, type);
+                }
+                if (last != null) {
+                    expected.put(userId, last);
+                }
+                return null;
+            });
+        }
+
+        runInParallel(tasks).forEach(this::getUnchecked);
+
+        MomentReaction reaction = load();
+        assertEquals(expected, reaction.getUserReactions());
+        assertConsistent(reaction);
+    }
+
+    @Test
+    void parallelTogglesFromTheSameUserKeepCountersConsistent() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        repository.toggleReaction(momentId, otherUserId, ReactionType.HEART);
+
+        Random random = new Random(42);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ReactionType type = randomType(random);
+            tasks.add(() -> {
+                try {
+                    repository.toggleReaction(momentId, userId, type);
+                } catch (ConcurrentUpdateEx e) {
+                    // Hết số lần thử vì cùng một user, không có gì được ghi
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        runInParallel(tasks).forEach(this::getUnchecked);
+
+        MomentReaction reaction = load();
+        assertEquals(ReactionType.HEART, reaction.getUserReactions().get(otherUserId));
+        assertTrue(reaction.getUserReactions().size() <= 2);
+        assertTrue(conflicts.get() < tasks.size(), "every toggle gave up");
+        assertConsistent(reaction);
+    }
+
+    private void assertConsistent(MomentReaction reaction) {
+        Map<UUID, ReactionType> userReactions = reaction.getUserReactions() != null
+                ? reaction.getUserReactions()
+                : Map.of();
+
+        Map<ReactionType, Integer> tally = new EnumMap<>(ReactionType.class);
+        userReactions.values().forEach(type -> tally.merge(type, 1, Integer::sum));
+
+        Map<ReactionType, Integer> counts = new EnumMap<>(ReactionType.class);
+        if (reaction.getCounts() != null) {
+            reaction.getCounts().forEach((type, count) -> {
+                assertTrue(count >= 0, "negative count for " + type);
+                if (count > 0) {
+                    counts.put(type, count);
+                }
+            });
+        }
+
+        assertEquals(tally, counts);
+        assertEquals(userReactions.size(), reaction.getTotal());
+
+        List<RecentReactor> recentReactors = reaction.getRecentReactors() != null
+                ? reaction.getRecentReactors()
+                : List.of();
+        assertTrue(recentReactors.size() <= MomentReaction.RECENT_REACTORS_LIMIT);
+        recentReactors.forEach(reactor ->
+                assertEquals(userReactions.get(reactor.getUserId()), reactor.getReactionType(),
+                        "stale preview for " + reactor.getUserId()));
+    }
+
+    private MomentReaction load() {
+        MomentReaction reaction = mongoTemplate.findOne(
+                Query.query(Criteria.where("momentId").is(momentId)), MomentReaction.class);
+        assertNotNull(reaction);
+        return reaction;
+    }
+
+    private List<Future<Void>> runInParallel(List<Callable<Void>> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            return executor.invokeAll(tasks, 2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void getUnchecked(Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        } catch (ExecutionException | CancellationException e) {
+            fail(e);
+        }
+    }
+
+    private static ReactionType randomType(Random random) {
+        ReactionType[] types = ReactionType.values();
+        return types[random.nextInt(types.length)];
+    }
+}